@@ -0,0 +1,20 @@
+package com.kaede.portfoliobackend.config;
+
+import java.security.Principal;
+
+/**
+ * 登录用户 (JwtAuthenticationFilter 放进安全上下文的 principal)
+ * 控制器用 @AuthenticationPrincipal AuthUser 直接拿到 id / 用户名 / 角色，不用再按用户名查库。
+ * getName() 返回用户名，原来用 authentication.getName() 的地方不受影响。
+ */
+public record AuthUser(Long id, String username, String role) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public boolean isAdmin() {
+        return "ROLE_ADMIN".equals(role);
+    }
+}
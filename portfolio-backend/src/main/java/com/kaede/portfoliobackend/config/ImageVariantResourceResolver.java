@@ -0,0 +1,43 @@
+package com.kaede.portfoliobackend.config;
+
+import com.kaede.portfoliobackend.service.ImageVariantService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.resource.ResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.util.List;
+
+/**
+ * /uploads/** 的图片尺寸选择
+ * 1. "xxx.jpg?w=400"：挑不小于 400 的最小一档衍生图 (这里是 640)，比最大档还宽就给原图；
+ * 2. "xxx-640w.jpg"：直接取这一档；
+ * 3. 衍生图还在后台生成、或者原图本来就比这一档窄时，回退到原图，前端拿到的地址永远不会 404。
+ */
+public class ImageVariantResourceResolver implements ResourceResolver {
+
+    @Override
+    public Resource resolveResource(HttpServletRequest request, String requestPath,
+                                    List<? extends Resource> locations, ResourceResolverChain chain) {
+        // 1. ?w= 指定期望宽度
+        String w = request != null ? request.getParameter("w") : null;
+        if (w != null && w.matches("\\d{1,5}") && ImageVariantService.originalPathOf(requestPath) == null) {
+            int width = ImageVariantService.pickWidth(Integer.parseInt(w));
+            if (width > 0) {
+                Resource resource = chain.resolveResource(request, ImageVariantService.variantPath(requestPath, width), locations);
+                if (resource != null) return resource;
+            }
+        }
+
+        // 2. 按原路径找；衍生图不存在时回退原图
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource != null) return resource;
+        String original = ImageVariantService.originalPathOf(requestPath);
+        return original != null ? chain.resolveResource(request, original, locations) : null;
+    }
+
+    @Override
+    public String resolveUrlPath(String resourcePath, List<? extends Resource> locations, ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourcePath, locations);
+    }
+}
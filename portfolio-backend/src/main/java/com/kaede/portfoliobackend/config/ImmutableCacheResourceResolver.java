@@ -0,0 +1,154 @@
+package com.kaede.portfoliobackend.config;
+
+import com.kaede.portfoliobackend.service.ImageVariantService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * /uploads/** 的长期缓存
+ * 文件名是内容哈希 (或它的衍生图) 时，URL 对应的内容永远不变，直接给一年 + immutable，浏览器不再回源验证；
+ * 衍生图还没生成、临时回退到原图的响应不算，改成 no-cache，生成后能立刻换成小图；
+ * 旧的 UUID 文件名沿用处理器上配置的默认缓存时间。
+ */
+public class ImmutableCacheResourceResolver implements ResourceResolver {
+
+    // 64 位十六进制 SHA-256，可带 "-640w" 衍生图后缀
+    private static final Pattern FINGERPRINT = Pattern.compile("^[0-9a-f]{64}(-\\d+w)?\\.[a-z0-9]+$");
+
+    private static final String IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue();
+    private static final String REVALIDATE = CacheControl.noCache().getHeaderValue();
+
+    @Override
+    public Resource resolveResource(HttpServletRequest request, String requestPath,
+                                    List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource == null) return null;
+
+        String fileName = requestPath.substring(requestPath.lastIndexOf('/') + 1);
+        if (!FINGERPRINT.matcher(fileName).matches()) return resource;
+
+        // 实际返回的文件和 URL 期望的一致才算不可变
+        String served = resource.getFilename();
+        return new CachedResource(resource, expectedFileName(request, fileName).equals(served) ? IMMUTABLE : REVALIDATE);
+    }
+
+    @Override
+    public String resolveUrlPath(String resourcePath, List<? extends Resource> locations, ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourcePath, locations);
+    }
+
+    // 带 ?w= 时期望拿到对应档位的衍生图，否则就是 URL 里的文件本身
+    private String expectedFileName(HttpServletRequest request, String fileName) {
+        String w = request != null ? request.getParameter("w") : null;
+        if (w == null || !w.matches("\\d{1,5}") || ImageVariantService.originalPathOf(fileName) != null) {
+            return fileName;
+        }
+        int width = ImageVariantService.pickWidth(Integer.parseInt(w));
+        return width > 0 ? ImageVariantService.variantPath(fileName, width) : fileName;
+    }
+
+    /**
+     * 给解析出的资源附加 Cache-Control；下游如果是 .gz 资源，保留它的 Content-Encoding / Vary
+     */
+    private static final class CachedResource extends AbstractResource implements HttpResource {
+
+        private final Resource delegate;
+        private final String cacheControl;
+
+        private CachedResource(Resource delegate, String cacheControl) {
+            this.delegate = delegate;
+            this.cacheControl = cacheControl;
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            if (delegate instanceof HttpResource httpResource) {
+                headers.putAll(httpResource.getResponseHeaders());
+            }
+            headers.setCacheControl(cacheControl);
+            return headers;
+        }
+
+        @Override
+        public boolean exists() {
+            return delegate.exists();
+        }
+
+        @Override
+        public boolean isReadable() {
+            return delegate.isReadable();
+        }
+
+        @Override
+        public boolean isFile() {
+            return delegate.isFile();
+        }
+
+        @Override
+        public URL getURL() throws IOException {
+            return delegate.getURL();
+        }
+
+        @Override
+        public URI getURI() throws IOException {
+            return delegate.getURI();
+        }
+
+        @Override
+        public File getFile() throws IOException {
+            return delegate.getFile();
+        }
+
+        @Override
+        public ReadableByteChannel readableChannel() throws IOException {
+            return delegate.readableChannel();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return delegate.lastModified();
+        }
+
+        @Override
+        public Resource createRelative(String relativePath) throws IOException {
+            return delegate.createRelative(relativePath);
+        }
+
+        @Override
+        public String getFilename() {
+            return delegate.getFilename();
+        }
+
+        @Override
+        public String getDescription() {
+            return delegate.getDescription();
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return delegate.getInputStream();
+        }
+    }
+}
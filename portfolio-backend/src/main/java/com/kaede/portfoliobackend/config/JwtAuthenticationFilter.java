@@ -1,6 +1,8 @@
 package com.kaede.portfoliobackend.config;
 
+import com.kaede.portfoliobackend.service.UserCacheService;
 import com.kaede.portfoliobackend.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,6 +16,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -21,6 +24,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private UserCacheService userCacheService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -32,25 +38,39 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
             try {
-                // 3. 解析 Token 提取用户名和角色
-                String username = jwtUtils.extractUsername(token);
-                String role = jwtUtils.extractRole(token);
+                // 3. 解析 Token 提取用户 id 和用户名 (只验签一次，重复的 Token 直接走缓存)
+                Claims claims = jwtUtils.parseClaims(token);
+                String username = claims.getSubject();
+                Long userId = jwtUtils.extractUserId(claims);
 
                 // 4. 只有当用户名存在且当前上下文未认证时，才进行认证设置
                 if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                    // 角色以用户缓存里的为准 (角色被改、用户被删后不用等 Token 过期)；旧 Token 没有 id 时按用户名查一次
+                    Optional<UserCacheService.CachedUser> user = userId != null
+                            ? userCacheService.get(userId)
+                            : userCacheService.getByUsername(username);
+                    if (user.isEmpty()) {
+                        filterChain.doFilter(request, response);
+                        return;
+                    }
+                    String role = user.get().role();
 
                     // 核心修复：确保 role 带有 "ROLE_" 前缀，完美适配 Spring Security 的 hasRole 语法
                     String authorityRole = (role != null && role.startsWith("ROLE_")) ? role : "ROLE_" + role;
                     SimpleGrantedAuthority authority = new SimpleGrantedAuthority(authorityRole);
 
+                    // principal 是带 id / 用户名 / 角色的 AuthUser，控制器不用再查用户表
+                    AuthUser principal = new AuthUser(user.get().id(), user.get().username(), authorityRole);
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            username, null, Collections.singletonList(authority));
+                            principal, null, Collections.singletonList(authority));
 
                     // 5. 正式存入安全上下文
                     SecurityContextHolder.getContext().setAuthentication(authToken);
 
-                    // 打印日志，方便线上排查
-                    System.out.println("JWT 解析成功 - 用户: " + username + ", 授权角色: " + authorityRole);
+                    // 调试日志：默认级别下不输出，避免每个请求都往控制台写一行
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("JWT 解析成功 - 用户: " + username + ", 授权角色: " + authorityRole);
+                    }
                 }
             } catch (Exception e) {
                 // Token 无效或过期，记录错误并放行，由后续的 Security 配置拦截
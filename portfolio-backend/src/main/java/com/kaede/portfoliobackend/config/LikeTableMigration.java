@@ -0,0 +1,53 @@
+package com.kaede.portfoliobackend.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 旧点赞表迁移
+ * article_like / project_like (按用户名存) 合并进 content_likes (按用户 id 存)。
+ * 迁移完把旧表改名为 *_migrated 留作备份，下次启动看不到旧表就什么都不做。
+ */
+@Component
+@DependsOn("entityManagerFactory") // 等 Hibernate 建好 content_likes
+public class LikeTableMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(LikeTableMigration.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        migrate("article_like", "article_id", 1);
+        migrate("project_like", "project_id", 2);
+    }
+
+    private void migrate(String table, String targetColumn, int targetType) {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table);
+        if (!Boolean.TRUE.equals(exists)) return;
+
+        Integer copied = transactionTemplate.execute(status -> {
+            // 用户名对不上 (用户已删除) 的点赞直接丢弃；重复点赞由主键去重
+            int rows = jdbcTemplate.update("""
+                    INSERT INTO content_likes (target_type, target_id, user_id, created_at)
+                    SELECT ?, l.%s, u.id, COALESCE(l.created_at, now())
+                    FROM %s l JOIN users u ON u.username = l.username
+                    WHERE l.%s IS NOT NULL
+                    ON CONFLICT DO NOTHING
+                    """.formatted(targetColumn, table, targetColumn), targetType);
+            jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + table + "_migrated");
+            return rows;
+        });
+        log.info("旧点赞表 {} 已迁移 {} 条到 content_likes", table, copied);
+    }
+}
@@ -0,0 +1,90 @@
+package com.kaede.portfoliobackend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 每个请求的 SQL 条数
+ * 1. 请求进来开始记录，结束时按 "方法 路径模式" 记到 portfolio.http.queries 分布里；
+ * 2. 超出该接口的预算打 WARN，带上每条语句的次数；同一条语句重复到阈值另外按疑似 N+1 报出来；
+ * 3. 结果放在请求属性 RECORDING_ATTRIBUTE 上，测试里可以直接拿来断言预算。
+ * 在 WebConfig 里注册到 Spring Security 之前，认证过程中的 SQL 也算在内。
+ */
+@Component
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    public static final String RECORDING_ATTRIBUTE = QueryBudgetFilter.class.getName() + ".recording";
+
+    private final QueryCountInspector inspector;
+    private final QueryBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public QueryBudgetFilter(QueryCountInspector inspector, QueryBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.inspector = inspector;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 请求对应的预算 key，例如 "GET /api/articles/{id}"；没匹配到控制器时用原始路径
+     */
+    public static String endpointOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        inspector.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            QueryCountInspector.Recording recording = inspector.stop();
+            request.setAttribute(RECORDING_ATTRIBUTE, recording);
+            report(endpointOf(request), recording);
+        }
+    }
+
+    private void report(String endpoint, QueryCountInspector.Recording recording) {
+        // 1. 不执行 SQL 的请求 (静态资源、304 等) 不记，免得把分布拉低
+        if (recording.count() == 0) return;
+        DistributionSummary.builder("portfolio.http.queries")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(recording.count());
+
+        // 2. 超预算
+        int budget = properties.budgetFor(endpoint);
+        if (recording.count() > budget) {
+            log.warn("{} 执行了 {} 条 SQL，超出预算 {}: {}", endpoint, recording.count(), budget, recording.statements());
+        }
+
+        // 3. 同一条语句反复执行
+        for (Map.Entry<String, Integer> e : recording.statements().entrySet()) {
+            if (e.getValue() >= properties.getRepeatThreshold()) {
+                meterRegistry.counter("portfolio.http.queries.repeated", "endpoint", endpoint).increment();
+                log.warn("{} 疑似 N+1：同一条 SQL 执行了 {} 次: {}", endpoint, e.getValue(), e.getKey());
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.kaede.portfoliobackend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 每个请求的 SQL 条数预算 (application.yml 里的 query-budget.*)
+ * endpoints 的 key 是 "方法 路径模式"，例如 "GET /api/articles/{id}"；没配的接口用 default-budget。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "query-budget")
+public class QueryBudgetProperties {
+
+    private boolean enabled = true;
+
+    private int defaultBudget = 10;
+
+    // 同一条 SQL (参数不同) 在一个请求里执行这么多次就当作 N+1 报出来
+    private int repeatThreshold = 3;
+
+    private Map<String, Integer> endpoints = new LinkedHashMap<>();
+
+    public int budgetFor(String endpoint) {
+        return endpoints.getOrDefault(endpoint, defaultBudget);
+    }
+}
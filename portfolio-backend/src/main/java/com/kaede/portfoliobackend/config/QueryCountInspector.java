@@ -0,0 +1,83 @@
+package com.kaede.portfoliobackend.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 统计当前请求执行的 SQL
+ * 1. 注册成 Hibernate 的 StatementInspector，JPQL、派生查询、原生 SQL 在预编译前都会经过这里；
+ * 2. 只在 QueryBudgetFilter 开始记录的线程上计数；首页聚合这类丢到其它虚拟线程上跑的查询，用 propagate 把记录带过去一起算；
+ * 3. 预编译的 SQL 参数都是 ?，同一条语句文本相同，按文本分组就能看出重复执行。
+ */
+@Component
+public class QueryCountInspector implements StatementInspector, HibernatePropertiesCustomizer {
+
+    /**
+     * 一个请求的 SQL 记录：总条数 + 每条语句执行了几次 (按首次出现顺序)
+     * 并行的子任务会同时往里记，写入加锁；读在请求结束、子任务都 join 之后
+     */
+    public static class Recording {
+        private int count;
+        private final Map<String, Integer> statements = new LinkedHashMap<>();
+
+        private synchronized void record(String sql) {
+            count++;
+            statements.merge(sql, 1, Integer::sum);
+        }
+
+        public synchronized int count() {
+            return count;
+        }
+
+        public synchronized Map<String, Integer> statements() {
+            return statements;
+        }
+    }
+
+    private final ThreadLocal<Recording> current = new ThreadLocal<>();
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Recording recording = current.get();
+        if (recording != null) recording.record(sql);
+        // 不改写 SQL
+        return sql;
+    }
+
+    public void start() {
+        current.set(new Recording());
+    }
+
+    /**
+     * 包一层要丢到别的线程上跑的任务，让它的 SQL 记进当前线程的请求里；当前线程没在记录就原样返回
+     */
+    public <T> Supplier<T> propagate(Supplier<T> task) {
+        Recording recording = current.get();
+        if (recording == null) return task;
+        return () -> {
+            current.set(recording);
+            try {
+                return task.get();
+            } finally {
+                current.remove();
+            }
+        };
+    }
+
+    public Recording stop() {
+        Recording recording = current.get();
+        current.remove();
+        return recording;
+    }
+}
@@ -0,0 +1,110 @@
+package com.kaede.portfoliobackend.config;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.kaede.portfoliobackend.utils.TokenBucket;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按客户端限流
+ * 1. 登录 (BCrypt)、注册、验证码、发评论、点赞这些贵的或写库的接口，按 rate-limit.rules 各配一个令牌桶；
+ * 2. 每条规则按 IP 一个桶，登录用户再按用户名一个桶，任何一个桶空了都返回 429 + Retry-After；
+ * 3. 桶放在有容量上限的 LRU 缓存里，闲置超时自动丢弃，刷 IP 也撑不爆内存。
+ * 放在 JwtAuthenticationFilter 之后，这时已经知道是哪个用户。
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private record CompiledRule(RateLimitProperties.Rule rule, PathPattern pattern) {
+    }
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final List<CompiledRule> rules;
+
+    // key: "规则名|ip:地址" 或 "规则名|user:用户名"
+    private final LRUCache<String, TokenBucket> buckets;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.rules = properties.getRules().stream()
+                .map(rule -> new CompiledRule(rule, PathPatternParser.defaultInstance.parse(rule.getPattern())))
+                .toList();
+        this.buckets = CacheUtil.newLRUCache(properties.getMaxClients(), properties.getIdleTimeoutMs());
+        Gauge.builder("portfolio.ratelimit.buckets", buckets, LRUCache::size).register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || rules.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimitProperties.Rule rule = match(request);
+        if (rule != null) {
+            // 1. 先按 IP (经过可信代理时是 X-Forwarded-For 还原出的客户端地址)，再按登录用户名
+            long waitNanos = consume(rule, "ip:" + request.getRemoteAddr());
+            String username = currentUsername();
+            if (waitNanos == 0 && username != null) {
+                waitNanos = consume(rule, "user:" + username);
+            }
+
+            // 2. 桶空了：429，告诉客户端多久后再来
+            if (waitNanos > 0) {
+                long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+                meterRegistry.counter("portfolio.ratelimit.rejected", "rule", rule.getName()).increment();
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+                response.setContentType("text/plain;charset=UTF-8");
+                response.getWriter().write("请求太频繁，请 " + retryAfter + " 秒后再试");
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private RateLimitProperties.Rule match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (CompiledRule compiled : rules) {
+            String method = compiled.rule().getMethod();
+            if ((method == null || method.equalsIgnoreCase(request.getMethod())) && compiled.pattern().matches(path)) {
+                return compiled.rule();
+            }
+        }
+        return null;
+    }
+
+    private long consume(RateLimitProperties.Rule rule, String client) {
+        TokenBucket bucket = buckets.get(rule.getName() + "|" + client,
+                () -> new TokenBucket(rule.getCapacity(), rule.getPerMinute()));
+        return bucket.tryConsume();
+    }
+
+    private String currentUsername() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) return null;
+        return auth.getName();
+    }
+}
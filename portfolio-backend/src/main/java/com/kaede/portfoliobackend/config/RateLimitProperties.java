@@ -0,0 +1,39 @@
+package com.kaede.portfoliobackend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 限流配置 (application.yml 里的 rate-limit.*)
+ * 每条规则是一个令牌桶：capacity 是允许的突发量，per-minute 是每分钟回填的令牌数。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // 同时跟踪的客户端 (IP / 用户名) 桶数上限，超出按最近最少使用淘汰
+    private int maxClients = 100000;
+
+    // 桶闲置这么久没被访问就丢掉，再来时按满桶重新开始
+    private long idleTimeoutMs = 600000;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        private String name;
+        // 为空时匹配所有方法
+        private String method;
+        // Spring 路径模式，例如 /api/*/*/like
+        private String pattern;
+        private int capacity;
+        private int perMinute;
+    }
+}
@@ -30,6 +30,9 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -48,10 +51,18 @@ public class SecurityConfig {
 
                         // 【公开路径】 - 任何人都能看文章、生涯列表、图片
                         .requestMatchers(HttpMethod.GET, "/api/download").permitAll() //允许所有人调用下载接口
+                        .requestMatchers(HttpMethod.GET, "/api/media/**").permitAll() // 媒体分段播放
+                        .requestMatchers(HttpMethod.HEAD, "/api/media/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/articles/*/source").hasRole("ADMIN") // 编辑器取 Markdown 源码
                         .requestMatchers(HttpMethod.GET, "/api/articles", "/api/articles/**").permitAll()
                         // 修正路径匹配：覆盖 /api/career/list 以及未来可能的详情页
                         .requestMatchers(HttpMethod.GET, "/api/career", "/api/career/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/uploads/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/search").permitAll() // 站内搜索
+                        .requestMatchers(HttpMethod.GET, "/api/home").permitAll() // 首页聚合
+                        .requestMatchers(HttpMethod.GET, "/api/live/**").permitAll() // 点赞数/评论数实时推送
+                        // 监控端点只开在本机的管理端口上 (见 management.server)，由 Prometheus 在本机抓取
+                        .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/prometheus").permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
 
                         .requestMatchers(HttpMethod.POST, "/api/articles/*/like").authenticated()
@@ -81,12 +92,17 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.PUT, "/api/projects/*").authenticated() //只有管理员可以修改
                         .requestMatchers("/api/projects/save", "/api/projects/delete/**").hasRole("ADMIN") // 只有管理员能存删
 
+                        // 【批量导入导出】
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+
 
 
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        // 限流紧跟在 JWT 之后：已登录的按用户名限，未登录的按 IP 限
+        http.addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -115,7 +131,8 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*")); // 允许所有 Header
         configuration.setAllowCredentials(true);
-        configuration.setExposedHeaders(Arrays.asList("Content-Disposition", "Content-Length", "Content-Range", "Accept-Ranges"));
+        configuration.setExposedHeaders(Arrays.asList("Content-Disposition", "Content-Length", "Content-Range", "Accept-Ranges",
+                "X-Image-Srcset"));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
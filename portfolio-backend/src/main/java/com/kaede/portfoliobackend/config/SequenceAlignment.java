@@ -0,0 +1,50 @@
+package com.kaede.portfoliobackend.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 主键序列对齐
+ * 文章/作品/履历/评论从自增列改成了序列主键，ddl-auto 新建的序列从 1 开始；
+ * 启动时 (接收请求之前) 把序列推到不小于已有最大 id，避免和老数据撞主键。已经对齐过的不会动。
+ */
+@Component
+@DependsOn("entityManagerFactory") // 等 Hibernate 建完序列
+public class SequenceAlignment {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenceAlignment.class);
+
+    // 序列 -> 表，和实体上 @SequenceGenerator 的配置保持一致
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "articles_seq", "articles",
+            "projects_seq", "projects",
+            "career_seq", "career",
+            "comments_seq", "comments"
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void align() {
+        SEQUENCES.forEach((sequence, table) -> {
+            // 序列步长和 allocationSize 一样是 50：序列值不小于最大 id，下一次 nextval 分到的一段 id 就都比它大
+            Long floor = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            // 新建的序列 last_value = 1 但 is_called = false，下一次 nextval 还会返回 1：表里已有 id 1 时也得推
+            Map<String, Object> current = jdbcTemplate.queryForMap("SELECT last_value, is_called FROM " + sequence);
+            long lastValue = ((Number) current.get("last_value")).longValue();
+            boolean called = (Boolean) current.get("is_called");
+            if (floor != null && floor > 0 && (!called || lastValue < floor)) {
+                jdbcTemplate.queryForObject("SELECT setval(?, ?)", Long.class, sequence, floor);
+                log.info("主键序列 {} 已推进到 {}", sequence, floor);
+            }
+        });
+    }
+}
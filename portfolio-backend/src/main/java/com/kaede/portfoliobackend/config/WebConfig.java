@@ -1,10 +1,15 @@
 package com.kaede.portfoliobackend.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.security.autoconfigure.web.servlet.SecurityFilterProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
 
 import java.util.concurrent.TimeUnit;
 
@@ -15,11 +20,27 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("${upload.path}")
     private String uploadPath;
 
+    // SQL 计数要排在 Spring Security 前面，JWT 过滤器里查用户的 SQL 也算进请求
+    @Bean
+    public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilterRegistration(QueryBudgetFilter filter) {
+        FilterRegistrationBean<QueryBudgetFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(SecurityFilterProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         String location = uploadPath.startsWith("file:") ? uploadPath : "file:" + uploadPath;
         registry.addResourceHandler("/uploads/**")
                 .addResourceLocations(location)
-                .setCacheControl(CacheControl.maxAge(1, TimeUnit.HOURS));
+                // 旧的 UUID 文件名仍按一小时缓存；内容哈希命名的文件由下面的解析器改成一年 + immutable
+                .setCacheControl(CacheControl.maxAge(1, TimeUnit.HOURS))
+                // 不开启解析缓存：?w= 不在缓存 key 里，而且衍生图生成后要能立刻取到
+                .resourceChain(false)
+                .addResolver(new ImmutableCacheResourceResolver())
+                .addResolver(new ImageVariantResourceResolver())
+                // 按 Accept-Encoding 优先返回上传时预先生成的 .gz
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new PathResourceResolver());
     }
 }
@@ -0,0 +1,47 @@
+package com.kaede.portfoliobackend.controller;
+
+import com.kaede.portfoliobackend.service.ContentTransferService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private ContentTransferService contentTransferService;
+
+    // 导出全部文章 / 作品 / 履历 / 评论 (NDJSON)，边查边写，不在内存里拼整个文件
+    @GetMapping("/export")
+    public void exportContent(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"portfolio-" + LocalDate.now() + ".ndjson\"");
+        Writer writer = response.getWriter();
+        contentTransferService.exportAll(writer);
+        writer.flush();
+    }
+
+    // 导入 NDJSON：请求体直接按行读，分批提交
+    @PostMapping("/import")
+    public ResponseEntity<?> importContent(HttpServletRequest request) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            return ResponseEntity.ok(contentTransferService.importAll(reader).counts());
+        } catch (ContentTransferService.ImportException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -1,16 +1,37 @@
 package com.kaede.portfoliobackend.controller; // ⚠️ 确认你的包名是否正确
 
+import com.kaede.portfoliobackend.config.AuthUser;
 import com.kaede.portfoliobackend.entity.Article;
-import com.kaede.portfoliobackend.entity.ArticleLike;
-import com.kaede.portfoliobackend.repository.ArticleLikeRepository;
+import com.kaede.portfoliobackend.entity.VisitorSketch;
+import com.kaede.portfoliobackend.repository.ArticleCard;
+import com.kaede.portfoliobackend.repository.ArticleDetail;
+import com.kaede.portfoliobackend.repository.LikeRecord;
 import com.kaede.portfoliobackend.repository.ArticleRepository;
+import com.kaede.portfoliobackend.service.FileStorageService;
+import com.kaede.portfoliobackend.service.HotRankingService;
+import com.kaede.portfoliobackend.service.LikeService;
+import com.kaede.portfoliobackend.service.MarkdownService;
+import com.kaede.portfoliobackend.service.ResourceVersionService;
+import com.kaede.portfoliobackend.service.SearchService;
+import com.kaede.portfoliobackend.service.UniqueVisitorService;
+import com.kaede.portfoliobackend.service.ViewCounterService;
+import com.kaede.portfoliobackend.utils.CursorUtils;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/articles")// 允许前端跨域
@@ -20,22 +41,108 @@ public class ArticleController {
     private ArticleRepository articleRepository;
 
     @Autowired
-    private ArticleLikeRepository articleLikeRepository;
+    private ViewCounterService viewCounterService;
 
-    // 1. 获取所有文章 (按时间倒序)
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ResourceVersionService versions;
+
+    @Autowired
+    private MarkdownService markdownService;
+
+    @Autowired
+    private HotRankingService hotRankingService;
+
+    @Autowired
+    private UniqueVisitorService uniqueVisitorService;
+
+    // 1. 获取所有文章 (按时间倒序)，只返回卡片字段，不带正文；列表没变过直接 304
+    //    sort=hot 时按热度取前 size 篇 (排名在内存里，只按 id 回表取卡片)
     @GetMapping
-    public List<Article> getAllArticles() {
-        return articleRepository.findAllByOrderByCreatedAtDesc();
+    public List<ArticleCard> getAllArticles(@RequestParam(required = false) String sort,
+                                            @RequestParam(required = false) Integer size,
+                                            WebRequest request) {
+        if (versions.checkNotModified(request, ResourceVersionService.ARTICLES)) return null;
+        if ("hot".equals(sort)) {
+            return cardsInOrder(hotRankingService.hotArticles(CursorUtils.clampSize(size)));
+        }
+        return articleRepository.findCards(Limit.unlimited());
     }
 
-    // 2. 获取单篇文章详情 (自动增加阅读量 +1)
+    // 按 id 回表取卡片；IN 查询不保证顺序，按热度顺序重新排一下
+    private List<ArticleCard> cardsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<Long, ArticleCard> cards = articleRepository.findCardsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ArticleCard::getId, Function.identity()));
+        return ids.stream().map(cards::get).filter(Objects::nonNull).toList();
+    }
+
+    // 1.1 游标分页的文章流：第一页不传 cursor，之后把上次返回的 nextCursor 原样带回
+    @GetMapping("/feed")
+    public ResponseEntity<?> getArticleFeed(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size) {
+        int pageSize = CursorUtils.clampSize(size);
+        Limit limit = Limit.of(pageSize + 1); // 多取一条判断是否还有下一页
+        List<ArticleCard> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = articleRepository.findCards(limit);
+        } else {
+            try {
+                CursorUtils.Cursor c = CursorUtils.decode(cursor);
+                rows = articleRepository.findCardsBefore(LocalDateTime.parse(c.key()), c.id(), limit);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                return ResponseEntity.badRequest().body("无效的游标");
+            }
+        }
+        return ResponseEntity.ok(CursorUtils.page(rows, pageSize, ArticleCard::getCreatedAt, ArticleCard::getId));
+    }
+
+    // 2. 获取单篇文章详情 (自动增加阅读量 +1)；只返回渲染好的 HTML 和目录，不带 Markdown 源码
     @GetMapping("/{id}")
-    public ResponseEntity<Article> getArticle(@PathVariable Long id) {
+    public ResponseEntity<ArticleDetail> getArticle(@PathVariable Long id, WebRequest request,
+                                              HttpServletRequest servletRequest, @AuthenticationPrincipal AuthUser user) {
+        // 文章没变过直接 304，阅读量和访客照样记一次 (只在内存里，不查库)；只有确认存在过的 id 才可能命中
+        if (versions.checkNotModified(request, ResourceVersionService.ARTICLES, id)) {
+            viewCounterService.recordArticleView(id);
+            uniqueVisitorService.record(VisitorSketch.ARTICLE, id, uniqueVisitorService.visitorOf(user, servletRequest));
+            return null;
+        }
         return articleRepository.findById(id).map(article -> {
-            // 浏览量自增
-            article.setViewCount(article.getViewCount() + 1);
-            articleRepository.save(article);
-            return ResponseEntity.ok(article);
+            // 浏览量只在内存里累加，由 ViewCounterService 定时批量落库
+            viewCounterService.recordArticleView(id);
+            uniqueVisitorService.record(VisitorSketch.ARTICLE, id, uniqueVisitorService.visitorOf(user, servletRequest));
+            int viewCount = article.getViewCount() + (int) viewCounterService.pendingArticleViews(id);
+            long uniqueVisitors = uniqueVisitorService.allTime(VisitorSketch.ARTICLE, id);
+            versions.stamp(request, ResourceVersionService.ARTICLES, id);
+            return ResponseEntity.ok(ArticleDetail.of(article, viewCount, uniqueVisitors));
+        }).orElse(ResponseEntity.notFound().build());
+    }
+
+    // 2.2 文章源码 (管理员，编辑器用)：完整实体，带 Markdown 原文
+    @GetMapping("/{id}/source")
+    public ResponseEntity<Article> getArticleSource(@PathVariable Long id) {
+        return articleRepository.findById(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    }
+
+    // 2.1 阅读统计：浏览量 + 今天 / 近 7 天 / 全部时间的去重访客数
+    @GetMapping("/{id}/visitors")
+    public ResponseEntity<?> getVisitors(@PathVariable Long id) {
+        return articleRepository.findById(id).<ResponseEntity<?>>map(article -> {
+            UniqueVisitorService.Stats stats = uniqueVisitorService.stats(VisitorSketch.ARTICLE, id);
+            return ResponseEntity.ok(Map.of(
+                    "viewCount", article.getViewCount() + viewCounterService.pendingArticleViews(id),
+                    "uniqueToday", stats.today(),
+                    "uniqueLast7Days", stats.last7Days(),
+                    "uniqueAllTime", stats.allTime()
+            ));
         }).orElse(ResponseEntity.notFound().build());
     }
 
@@ -46,20 +153,35 @@ public class ArticleController {
         // 确保初始值为0，防止空指针
         if (article.getViewCount() == null) article.setViewCount(0);
         if (article.getLikeCount() == null) article.setLikeCount(0);
-        return articleRepository.save(article);
+        // Markdown 在这里渲染一次，详情页直接返回 HTML 和目录
+        markdownService.renderInto(article);
+        Article saved = articleRepository.save(article);
+        // 封面和正文里的图片各记一次引用
+        fileStorageService.acquire(fileStorageService.referencesOf(saved));
+        searchService.indexArticle(saved);
+        hotRankingService.onArticleCreated(saved.getId(), saved.getCreatedAt());
+        versions.touch(ResourceVersionService.ARTICLES, saved.getId());
+        return saved;
     }
 
     // 4. 更新文章 (管理员) - 对应前端的编辑功能
     @PutMapping("/{id}")
     public ResponseEntity<?> updateArticle(@PathVariable Long id, @RequestBody Article articleDetails) {
         return articleRepository.findById(id).map(article -> {
+            Set<String> oldFiles = fileStorageService.referencesOf(article);
             article.setTitle(articleDetails.getTitle());
             article.setContent(articleDetails.getContent());
             article.setSummary(articleDetails.getSummary());
             article.setCategory(articleDetails.getCategory());
             article.setCoverUrl(articleDetails.getCoverUrl());
+            // 正文变了才重新渲染
+            markdownService.renderInto(article);
             // 注意：不更新 viewCount 和 likeCount，保留原数据
             articleRepository.save(article);
+            searchService.indexArticle(article);
+            versions.touch(ResourceVersionService.ARTICLES, id);
+            // 新引用的文件 +1，换掉 / 从正文里删掉的文件 -1
+            fileStorageService.updateReferences(oldFiles, fileStorageService.referencesOf(article));
             return ResponseEntity.ok("文章更新成功");
         }).orElse(ResponseEntity.notFound().build());
     }
@@ -69,64 +191,49 @@ public class ArticleController {
     public ResponseEntity<?> deleteArticle(@PathVariable Long id) {
         return articleRepository.findById(id).map(article -> {
             articleRepository.delete(article);
+            likeService.deleteArticleLikes(id);
+            hotRankingService.onArticleDeleted(id);
+            uniqueVisitorService.deleteTarget(VisitorSketch.ARTICLE, id);
+            searchService.removeArticle(id);
+            versions.forget(ResourceVersionService.ARTICLES, id);
+            fileStorageService.release(fileStorageService.referencesOf(article));
             return ResponseEntity.ok("文章已删除");
         }).orElse(ResponseEntity.notFound().build());
     }
 
     /// 1. 点赞/取消点赞 (Toggle逻辑)
     @PostMapping("/{id}/like")
-    public ResponseEntity<?> toggleLike(@PathVariable Long id, org.springframework.security.core.Authentication authentication) {
-        if (authentication == null || authentication.getName().equals("anonymousUser")) {
+    public ResponseEntity<?> toggleLike(@PathVariable Long id, @AuthenticationPrincipal AuthUser user) {
+        if (user == null) {
             return ResponseEntity.status(401).body("请先登录");
         }
 
-        String username = authentication.getName(); // 获取当前登录用户名
-
-        return articleRepository.findById(id).map(article -> {
-            // 检查是否已经点过赞
-            Optional<ArticleLike> existingLike = articleLikeRepository.findByArticleIdAndUsername(id, username);
-
-            boolean isLikedNow;
-            if (existingLike.isPresent()) {
-                // 如果点过赞 -> 取消点赞
-                articleLikeRepository.delete(existingLike.get());
-                article.setLikeCount(Math.max(0, article.getLikeCount() - 1));
-                isLikedNow = false;
-            } else {
-                // 如果没点过 -> 新增点赞
-                ArticleLike newLike = new ArticleLike();
-                newLike.setArticleId(id);
-                newLike.setUsername(username);
-                newLike.setCreatedAt(LocalDateTime.now());
-                articleLikeRepository.save(newLike);
-
-                article.setLikeCount(article.getLikeCount() + 1);
-                isLikedNow = true;
-            }
-
-            articleRepository.save(article);
-
-            // 返回最新状态给前端
-            return ResponseEntity.ok(java.util.Map.of(
-                    "likeCount", article.getLikeCount(),
-                    "isLiked", isLikedNow
-            ));
-        }).orElse(ResponseEntity.notFound().build());
+        // 一条语句完成切换 + 计数更新，文章不存在时返回空
+        return likeService.toggleArticleLike(id, user.id())
+                .<ResponseEntity<?>>map(result -> {
+                    versions.touch(ResourceVersionService.ARTICLES, id);
+                    return ResponseEntity.ok(java.util.Map.of(
+                            "likeCount", result.getLikeCount(),
+                            "isLiked", result.getLiked()
+                    ));
+                })
+                .orElse(ResponseEntity.notFound().build());
     }
 
     // 2. 获取当前用户的点赞状态 (前端初始化用)
     @GetMapping("/{id}/like-status")
-    public ResponseEntity<Boolean> getLikeStatus(@PathVariable Long id, org.springframework.security.core.Authentication authentication) {
-        if (authentication == null || authentication.getName().equals("anonymousUser")) {
+    public ResponseEntity<Boolean> getLikeStatus(@PathVariable Long id, @AuthenticationPrincipal AuthUser user) {
+        if (user == null) {
             return ResponseEntity.ok(false);
         }
-        boolean hasLiked = articleLikeRepository.findByArticleIdAndUsername(id, authentication.getName()).isPresent();
+        // 直接查 LikeService 的内存缓存，不再每次访问都查点赞表
+        boolean hasLiked = likeService.hasLikedArticle(user.id(), id);
         return ResponseEntity.ok(hasLiked);
     }
 
     // 3. 获取点赞列表 (管理员专用)
     @GetMapping("/{id}/likes-list")
-    public ResponseEntity<List<ArticleLike>> getLikesList(@PathVariable Long id) {
-        return ResponseEntity.ok(articleLikeRepository.findByArticleIdOrderByCreatedAtDesc(id));
+    public ResponseEntity<List<LikeRecord>> getLikesList(@PathVariable Long id) {
+        return ResponseEntity.ok(likeService.articleLikers(id));
     }
 }
\ No newline at end of file
@@ -2,10 +2,15 @@ package com.kaede.portfoliobackend.controller;
 
 import com.kaede.portfoliobackend.entity.User;
 import com.kaede.portfoliobackend.repository.UserRepository;
+import com.kaede.portfoliobackend.service.CaptchaService;
+import com.kaede.portfoliobackend.service.PasswordHashService;
+import com.kaede.portfoliobackend.service.UserCacheService;
+import com.kaede.portfoliobackend.service.UsernameFilterService;
 import com.kaede.portfoliobackend.utils.JwtUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -39,11 +44,20 @@ public class AuthController {
     private UserRepository userRepository;
 
     @Autowired
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHashService passwordHashService;
 
     @Autowired
     private JwtUtils jwtUtils; // 注入刚才写的工具类
 
+    @Autowired
+    private CaptchaService captchaService;
+
+    @Autowired
+    private UsernameFilterService usernameFilterService;
+
+    @Autowired
+    private UserCacheService userCacheService;
+
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterRequest request) {
 
@@ -54,7 +68,7 @@ public class AuthController {
         }
 
         // 从缓存中取出真正的验证码
-        String cachedCode = CaptchaController.CAPTCHA_CACHE.get(request.getUuid());
+        String cachedCode = captchaService.getCode(request.getUuid());
 
         if (cachedCode == null) {
             return ResponseEntity.badRequest().body("验证码已过期，请点击图片刷新");
@@ -66,43 +80,73 @@ public class AuthController {
         }
 
         // 校验通过后，立即从缓存中删除该验证码，防止被黑客重复利用 (重放攻击)
-        CaptchaController.CAPTCHA_CACHE.remove(request.getUuid());
+        captchaService.invalidate(request.getUuid());
 
 
         // --- 步骤 2：执行原有的注册逻辑 ---
-        if (userRepository.findByUsername(request.getUsername()).isPresent()) {
+        // 布隆过滤器说不存在就不用查库；说可能存在再查一次确认
+        if (usernameFilterService.mightExist(request.getUsername())
+                && userRepository.existsByUsername(request.getUsername())) {
             return ResponseEntity.badRequest().body("用户名已存在");
         }
 
         // 因为参数变成了 request，我们需要手动 new 一个 User 实体来保存到数据库
         User user = new User();
         user.setUsername(request.getUsername());
-        // 密码加密
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        // 密码加密 (BCrypt 很耗 CPU，交给专用线程池，过载时直接 503)
+        try {
+            user.setPassword(passwordHashService.encode(request.getPassword()));
+        } catch (PasswordHashService.OverloadedException e) {
+            return serviceBusy();
+        }
         user.setRole("ROLE_USER"); // 新用户默认都是 ROLE_USER
 
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // 并发注册同一个用户名，由唯一约束兜底
+            return ResponseEntity.badRequest().body("用户名已存在");
+        }
+        usernameFilterService.add(user.getUsername());
+        // 这个用户名之前可能作为"不存在"被缓存过 (同名用户被删后的旧 Token)
+        userCacheService.invalidate(user);
 
         return ResponseEntity.ok("注册成功");
     }
 
+    // 注册页实时检查用户名是否可用：过滤器确定不存在时直接返回，不查库
+    @GetMapping("/username-available")
+    public ResponseEntity<Boolean> isUsernameAvailable(@RequestParam String username) {
+        boolean taken = usernameFilterService.mightExist(username) && userRepository.existsByUsername(username);
+        return ResponseEntity.ok(!taken);
+    }
+
     // 登录接口
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody Map<String, String> request) {
         String username = request.get("username");
         String password = request.get("password");
 
-        // 1. 查找用户
+        // 1. 查找用户 (布隆过滤器确定不存在的用户名直接按失败处理，不查库也不算哈希)
+        if (username == null || !usernameFilterService.mightExist(username)) {
+            return ResponseEntity.status(401).body("用户名或密码错误");
+        }
         Optional<User> userOptional = userRepository.findByUsername(username);
 
         // 2. 检查用户是否存在
         if (userOptional.isPresent()) {
             User user = userOptional.get();
 
-            // 3. 验证密码
-            if (passwordEncoder.matches(password, user.getPassword())) {
+            // 3. 验证密码 (BCrypt 很耗 CPU，交给专用线程池，过载时直接 503)
+            boolean matched;
+            try {
+                matched = passwordHashService.matches(password, user.getPassword());
+            } catch (PasswordHashService.OverloadedException e) {
+                return serviceBusy();
+            }
+            if (matched) {
                 // 成功：签发 Token 并返回数据
-                String token = jwtUtils.generateToken(user.getUsername(), user.getRole());
+                String token = jwtUtils.generateToken(user.getId(), user.getUsername(), user.getRole());
 
                 Map<String, Object> response = new HashMap<>();
                 response.put("token", token);
@@ -116,4 +160,9 @@ public class AuthController {
         // 4. 统一处理所有失败情况（用户名不存在或密码错误）
         return ResponseEntity.status(401).body("用户名或密码错误");
     }
+
+    // 密码线程池忙不过来：快速失败，让客户端稍后重试
+    private ResponseEntity<?> serviceBusy() {
+        return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body("当前登录人数过多，请稍后再试");
+    }
 }
\ No newline at end of file
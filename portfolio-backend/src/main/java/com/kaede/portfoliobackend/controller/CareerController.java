@@ -2,8 +2,10 @@ package com.kaede.portfoliobackend.controller;
 
 import com.kaede.portfoliobackend.entity.Career;
 import com.kaede.portfoliobackend.repository.CareerRepository;
+import com.kaede.portfoliobackend.service.ResourceVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -14,8 +16,13 @@ public class CareerController {
     @Autowired
     private CareerRepository careerRepository;
 
+    @Autowired
+    private ResourceVersionService versions;
+
     @GetMapping("/list")
-    public List<Career> getCareerList() {
+    public List<Career> getCareerList(WebRequest request) {
+        // 履历没改过直接 304
+        if (versions.checkNotModified(request, ResourceVersionService.CAREERS)) return null;
         // 使用带排序的查询方法
         return careerRepository.findAllByOrderByStartDateDesc();
     }
@@ -23,12 +30,15 @@ public class CareerController {
     // 1. 新增或修改 (Save)
     @PostMapping("/save")
     public Career saveCareer(@RequestBody Career career) {
-        return careerRepository.save(career);
+        Career saved = careerRepository.save(career);
+        versions.touch(ResourceVersionService.CAREERS);
+        return saved;
     }
 
     // 2. 删除 (Delete)
     @DeleteMapping("/delete/{id}")
     public void deleteCareer(@PathVariable Long id) {
         careerRepository.deleteById(id);
+        versions.touch(ResourceVersionService.CAREERS);
     }
 }
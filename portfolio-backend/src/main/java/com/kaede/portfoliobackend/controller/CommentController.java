@@ -1,64 +1,84 @@
 package com.kaede.portfoliobackend.controller;
 
+import com.kaede.portfoliobackend.config.AuthUser;
 import com.kaede.portfoliobackend.entity.Comment;
+import com.kaede.portfoliobackend.repository.CommentDTO;
 import com.kaede.portfoliobackend.repository.CommentRepository;
-import com.kaede.portfoliobackend.repository.UserRepository;
+import com.kaede.portfoliobackend.repository.CursorPage;
+import com.kaede.portfoliobackend.service.CommentService;
+import com.kaede.portfoliobackend.service.LiveUpdateService;
+import com.kaede.portfoliobackend.service.ResourceVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/comments")
 public class CommentController {
 
-    @Autowired // 告诉 Spring：帮我找到这个接口的实现类并塞进来
-    private UserRepository userRepository;
-
     @Autowired
     private CommentRepository commentRepository;
 
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private ResourceVersionService versions;
+
+    @Autowired
+    private LiveUpdateService liveUpdateService;
+
     @PostMapping("/save")
-    public ResponseEntity<?> saveComment(@RequestBody Comment comment) {
-        // 1. 获取当前登录人的身份 (从 Security 上下文中拿)
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated()) {
+    public ResponseEntity<?> saveComment(@RequestBody Comment comment, @AuthenticationPrincipal AuthUser user) {
+        // 1. 获取当前登录人的身份 (JwtAuthenticationFilter 放进安全上下文的 AuthUser)
+        if (user == null) {
             return ResponseEntity.status(401).body("请先登录再发表评论");
         }
 
-        // 2. 这里的身份信息是我们在 JwtAuthenticationFilter 里塞进去的
-        String currentUsername = auth.getName();
-        // 根据用户名查出对应的 UserID 并设置给评论...
+        // 2. Token 里已经带着 UserID，直接绑定到评论上，不用再查用户表
+        comment.setUserId(user.id());
+        comment.setCreatedAt(LocalDateTime.now()); // 确保时间也是最新的
 
-        return userRepository.findByUsername(currentUsername)
-                .map(user -> {
-                    // 3. 将查到的 UserID 绑定到评论上
-                    comment.setUserId(user.getId());
-                    comment.setCreatedAt(LocalDateTime.now()); // 确保时间也是最新的
+        // 3. 回复只能挂在同一篇文章的评论下面，否则楼层里永远看不到它
+        if (comment.getParentId() != null) {
+            Comment parent = commentRepository.findById(comment.getParentId()).orElse(null);
+            if (parent == null || !parent.getArticleId().equals(comment.getArticleId())) {
+                return ResponseEntity.badRequest().body("回复的评论不存在");
+            }
+        }
 
-                    commentRepository.save(comment);
-                    return ResponseEntity.ok("评论成功");
-                })
-                .orElse(ResponseEntity.status(404).body("当前登录用户不存在"));
+        commentRepository.save(comment);
+        // 评论按文章分组做版本戳
+        versions.touch(ResourceVersionService.COMMENTS, comment.getArticleId());
+        // 正在看这篇文章的人会收到新的评论数
+        liveUpdateService.articleCommentsChanged(comment.getArticleId());
+        return ResponseEntity.ok("评论成功");
     }
 
-    @GetMapping("/article/{articleId}")
-    public ResponseEntity<List<Map<String, Object>>> getComments(@PathVariable Long articleId) {
-        // 这里直接返回 Map 列表，Spring Boot 会自动把它转成标准的 JSON
-        List<Map<String, Object>> comments = commentRepository.findByArticleIdWithUsernames(articleId);
-        return ResponseEntity.ok(comments);
+    // 分页的评论楼层：顶层评论最新在前，每条带上服务端组装好的回复树
+    @GetMapping("/article/{articleId}/thread")
+    public ResponseEntity<?> getThread(@PathVariable Long articleId,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam(required = false) Integer size,
+                                       WebRequest request) {
+        if (versions.checkNotModified(request, ResourceVersionService.COMMENTS, articleId)) return null;
+        try {
+            CursorPage<CommentDTO> page = commentService.getThread(articleId, cursor, size);
+            if (!page.getItems().isEmpty()) versions.stamp(request, ResourceVersionService.COMMENTS, articleId);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("无效的游标");
+        }
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteComment(@PathVariable Long id) {
+    public ResponseEntity<?> deleteComment(@PathVariable Long id, @AuthenticationPrincipal AuthUser user) {
         // 1. 获取当前发请求的人的身份
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated()) {
+        if (user == null) {
             return ResponseEntity.status(401).body("请先登录");
         }
 
@@ -68,22 +88,16 @@ public class CommentController {
             return ResponseEntity.status(404).body("评论不存在");
         }
 
-        // 3. 核心鉴权：判断是否有权限删除
-        String currentUsername = auth.getName();
-        return userRepository.findByUsername(currentUsername)
-                .map(user -> {
-                    // 判断条件：当前用户是评论作者，或者是管理员
-                    boolean isAuthor = comment.getUserId().equals(user.getId());
-                    boolean isAdmin = "ROLE_ADMIN".equals(user.getRole());
-
-                    if (!isAuthor && !isAdmin) {
-                        return ResponseEntity.status(403).body("越权操作：你没有权限删除此评论！");
-                    }
-
-                    // 权限校验通过，执行删除
-                    commentRepository.deleteById(id);
-                    return ResponseEntity.ok("删除成功");
-                })
-                .orElse(ResponseEntity.status(404).body("当前登录用户不存在"));
+        // 3. 核心鉴权：当前用户是评论作者，或者是管理员 (id 和角色都来自 Token，不查库)
+        boolean isAuthor = comment.getUserId().equals(user.id());
+        if (!isAuthor && !user.isAdmin()) {
+            return ResponseEntity.status(403).body("越权操作：你没有权限删除此评论！");
+        }
+
+        // 权限校验通过，执行删除
+        commentRepository.deleteById(id);
+        versions.touch(ResourceVersionService.COMMENTS, comment.getArticleId());
+        liveUpdateService.articleCommentsChanged(comment.getArticleId());
+        return ResponseEntity.ok("删除成功");
     }
 }
\ No newline at end of file
@@ -1,18 +1,25 @@
 package com.kaede.portfoliobackend.controller;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import java.io.File;
 import java.io.IOException;
-import java.util.UUID;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
+import com.kaede.portfoliobackend.service.FileStorageService;
+import com.kaede.portfoliobackend.service.ImageVariantService;
+import com.kaede.portfoliobackend.service.MediaStreamService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.net.URL;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api")
@@ -25,18 +32,31 @@ public class FileController {
     @Value("${upload.base-url}")
     private String BASE_URL;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MediaStreamService mediaStreamService;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
     /**
      * 原有接口：保持不变 (供文章编辑器使用)
      * 路径: POST /api/upload
      * 参数: image (文件)
-     * 返回: 纯字符串 URL
+     * 返回: 纯字符串 URL；图片的各尺寸地址放在 X-Image-Srcset 响应头里
      */
     @PostMapping("/upload")
-    public String upload(@RequestParam("image") MultipartFile file) {
+    public String upload(@RequestParam("image") MultipartFile file, HttpServletResponse response) {
         if (file.isEmpty()) return "上传失败";
         try {
             // 为了保持兼容，老接口的文件继续存在 uploads 根目录下
             String fileName = saveFile(file, "");
+            writeSrcset(response, fileName);
             return BASE_URL + fileName;
         } catch (IOException e) {
             e.printStackTrace();
@@ -48,12 +68,13 @@ public class FileController {
      * 新增接口：适配作品板块 (Project)
      * 路径: POST /api/upload/project
      * 参数: file (文件), type (类型字符串: cover, media, attachment)
-     * 返回: JSON 格式的 URL (更规范)
+     * 返回: JSON 格式的 URL (更规范)；封面图的各尺寸地址放在 X-Image-Srcset 响应头里
      */
     @PostMapping("/upload/project")
     public ResponseEntity<?> uploadProjectFile(
             @RequestParam("file") MultipartFile file,
-            @RequestParam("type") String type) {
+            @RequestParam("type") String type,
+            HttpServletResponse response) {
 
         if (file.isEmpty()) return ResponseEntity.badRequest().body("文件不能为空");
 
@@ -68,6 +89,9 @@ public class FileController {
             };
 
             String fileName = saveFile(file, subDir);
+            if ("cover".equals(type)) {
+                writeSrcset(response, subDir + fileName);
+            }
 
             // 返回完整访问 URL
             return ResponseEntity.ok(BASE_URL + subDir + fileName);
@@ -82,32 +106,43 @@ public class FileController {
      * 提取出的通用保存逻辑
      * @param file 文件对象
      * @param subDir 子目录 (例如 "media/")，如果是根目录传 ""
-     * @return 最终保存的文件名
+     * @return 最终保存的文件名 (内容哈希 + 后缀)
      */
     private String saveFile(MultipartFile file, String subDir) throws IOException {
-        // 1. 生成唯一文件名
-        String originalFilename = file.getOriginalFilename();
-        String suffix = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            suffix = originalFilename.substring(originalFilename.lastIndexOf("."));
-        }
-        String fileName = UUID.randomUUID() + suffix;
+        // 按子目录统计上传字节数和落盘耗时
+        String dirTag = subDir.isEmpty() ? "root" : subDir.replace("/", "");
+        Timer.Sample sample = Timer.start(meterRegistry);
 
-        // 2. 确保存储目录存在
-        File dir = new File(BASE_UPLOAD_PATH + subDir);
-        if (!dir.exists()) {
-            dir.mkdirs(); // 自动创建多级目录
-        }
+        // 内容寻址保存：文件名是内容的 SHA-256，相同文件只存一份
+        String relativePath = fileStorageService.store(file, subDir);
+        String fileName = relativePath.substring(subDir.length());
 
-        // 3. 保存文件
-        File dest = new File(BASE_UPLOAD_PATH + subDir + fileName);
-        file.transferTo(dest);
+        sample.stop(meterRegistry.timer("portfolio.upload.duration", "dir", dirTag));
+        DistributionSummary.builder("portfolio.upload.bytes").baseUnit("bytes").tag("dir", dirTag)
+                .register(meterRegistry).record(file.getSize());
 
+        // 封面和文章配图在后台生成缩略尺寸，不占上传请求的时间
+        if (subDir.isEmpty() || subDir.equals("covers/")) {
+            imageVariantService.generateAsync(relativePath);
+        }
         return fileName;
     }
 
+    // 返回体保持原来的纯 URL，尺寸列表用 srcset 格式放响应头，前端可以直接填进 <img srcset>
+    private void writeSrcset(HttpServletResponse response, String relativePath) {
+        Map<Integer, String> variants = imageVariantService.variantUrls(BASE_URL, relativePath);
+        if (variants.isEmpty()) return;
+        String srcset = variants.entrySet().stream()
+                .map(e -> e.getValue() + " " + e.getKey() + "w")
+                .collect(Collectors.joining(", "));
+        response.setHeader("X-Image-Srcset", srcset);
+    }
+
     @GetMapping("/download")
-    public ResponseEntity<Resource> downloadFile(@RequestParam String fileUrl) {
+    public void downloadFile(@RequestParam String fileUrl, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Path filePath;
         try {
             // 兼容绝对路径和相对路径
             String urlStr = fileUrl.startsWith("http") ? fileUrl : "http://localhost:8080" + fileUrl;
@@ -118,20 +153,47 @@ public class FileController {
             String relativePath = path.substring(path.indexOf("/uploads/") + 9);
 
             // 拼接服务器本地路径
-            Path filePath = Paths.get(BASE_UPLOAD_PATH, relativePath).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists()) {
-                return ResponseEntity.ok()
-                        // 🌟 核心：强制触发浏览器下载行为
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
+            filePath = resolveUpload(relativePath);
         } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.internalServerError().build();
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        if (filePath == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // 🌟 核心：attachment 强制触发浏览器下载行为；支持 Range，断点续传
+        long bytes = mediaStreamService.stream(filePath, true, request, response);
+        // 走 sendfile 时文件体在返回后才由容器发出，完整传输时间看 http.server.requests
+        sample.stop(meterRegistry.timer("portfolio.download.duration"));
+        // 记实际要发的字节数：断点续传只算请求的那几段，304 不算
+        DistributionSummary.builder("portfolio.download.bytes").baseUnit("bytes")
+                .register(meterRegistry).record(bytes);
+    }
+
+    /**
+     * 媒体播放接口：视频/音频拖动进度条时只取需要的片段
+     * 路径: GET /api/media/{uploads 下的相对路径}，例如 /api/media/media/xxx.mp4
+     */
+    @RequestMapping(value = "/media/{*path}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void streamMedia(@PathVariable String path, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Path filePath = resolveUpload(path);
+        if (filePath == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        mediaStreamService.stream(filePath, false, request, response);
+    }
+
+    // 把相对路径解析到上传目录下；越界 (../) 或文件不存在时返回 null
+    private Path resolveUpload(String relativePath) {
+        Path base = Paths.get(BASE_UPLOAD_PATH).toAbsolutePath().normalize();
+        Path filePath = base.resolve(relativePath.replaceFirst("^/+", "")).normalize();
+        if (!filePath.startsWith(base) || !Files.isRegularFile(filePath)) {
+            return null;
         }
+        return filePath;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.kaede.portfoliobackend.controller;
+
+import com.kaede.portfoliobackend.service.HomeService;
+import com.kaede.portfoliobackend.service.ResourceVersionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+@RestController
+@RequestMapping("/api/home")
+public class HomeController {
+
+    @Autowired
+    private HomeService homeService;
+
+    @Autowired
+    private ResourceVersionService versions;
+
+    // 首页一次拿齐：履历 + 最新文章 + 最热作品；客户端手里就是这份快照时直接 304
+    // ETag 按实际返回的快照的版本算：重建超时返回旧快照时，旧数据不会顶着新版本号被缓存
+    @GetMapping
+    public ResponseEntity<?> getHome(WebRequest request) {
+        try {
+            HomeService.Snapshot snapshot = homeService.get();
+            if (versions.checkNotModifiedAt(request, snapshot.version())) return null;
+            return ResponseEntity.ok(snapshot.home());
+        } catch (HomeService.HomeUnavailableException e) {
+            return ResponseEntity.status(503).header("Retry-After", "1").body(e.getMessage());
+        }
+    }
+}
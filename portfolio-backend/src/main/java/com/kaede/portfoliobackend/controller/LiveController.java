@@ -0,0 +1,48 @@
+package com.kaede.portfoliobackend.controller;
+
+import com.kaede.portfoliobackend.repository.ArticleRepository;
+import com.kaede.portfoliobackend.repository.ProjectRepository;
+import com.kaede.portfoliobackend.service.LiveUpdateService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/live")
+public class LiveController {
+
+    @Autowired
+    private LiveUpdateService liveUpdateService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    // 文章页订阅：点赞数、评论数有变化时推一条 update 事件 (每个周期最多一条)
+    @GetMapping(value = "/articles/{id}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> articleUpdates(@PathVariable Long id) {
+        if (!articleRepository.existsById(id)) return ResponseEntity.notFound().build();
+        try {
+            return ResponseEntity.ok(liveUpdateService.subscribeArticle(id));
+        } catch (LiveUpdateService.TooManySubscribersException e) {
+            return ResponseEntity.status(503).header("Retry-After", "30").body(e.getMessage());
+        }
+    }
+
+    // 作品页订阅：点赞数有变化时推送
+    @GetMapping(value = "/projects/{id}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> projectUpdates(@PathVariable Long id) {
+        if (!projectRepository.existsById(id)) return ResponseEntity.notFound().build();
+        try {
+            return ResponseEntity.ok(liveUpdateService.subscribeProject(id));
+        } catch (LiveUpdateService.TooManySubscribersException e) {
+            return ResponseEntity.status(503).header("Retry-After", "30").body(e.getMessage());
+        }
+    }
+}
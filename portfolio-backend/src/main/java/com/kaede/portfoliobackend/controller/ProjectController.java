@@ -1,16 +1,36 @@
 package com.kaede.portfoliobackend.controller;
 
+import com.kaede.portfoliobackend.config.AuthUser;
 import com.kaede.portfoliobackend.entity.Project;
-import com.kaede.portfoliobackend.entity.ProjectLike;
-import com.kaede.portfoliobackend.repository.ProjectLikeRepository;
+import com.kaede.portfoliobackend.entity.VisitorSketch;
+import com.kaede.portfoliobackend.repository.ProjectCard;
+import com.kaede.portfoliobackend.repository.ProjectDetail;
+import com.kaede.portfoliobackend.repository.LikeRecord;
 import com.kaede.portfoliobackend.repository.ProjectRepository;
+import com.kaede.portfoliobackend.service.FileStorageService;
+import com.kaede.portfoliobackend.service.HotRankingService;
+import com.kaede.portfoliobackend.service.LikeService;
+import com.kaede.portfoliobackend.service.ResourceVersionService;
+import com.kaede.portfoliobackend.service.SearchService;
+import com.kaede.portfoliobackend.service.UniqueVisitorService;
+import com.kaede.portfoliobackend.service.ViewCounterService;
+import com.kaede.portfoliobackend.utils.CursorUtils;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/projects")
@@ -20,99 +40,180 @@ public class ProjectController {
     private ProjectRepository projectRepository;
 
     @Autowired
-    private ProjectLikeRepository projectLikeRepository;
+    private ViewCounterService viewCounterService;
 
-    // 获取所有作品（带简单的排序参数）
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ResourceVersionService versions;
+
+    @Autowired
+    private HotRankingService hotRankingService;
+
+    @Autowired
+    private UniqueVisitorService uniqueVisitorService;
+
+    // 获取所有作品（带简单的排序参数），只返回卡片字段；列表没变过直接 304
+    // sort=hot 时按热度取前 size 个 (排名在内存里，只按 id 回表取卡片)
     @GetMapping
-    public List<Project> getProjects(@RequestParam(required = false) String sort) {
+    public List<ProjectCard> getProjects(@RequestParam(required = false) String sort,
+                                         @RequestParam(required = false) Integer size,
+                                         WebRequest request) {
+        if (versions.checkNotModified(request, ResourceVersionService.PROJECTS)) return null;
+        if ("hot".equals(sort)) {
+            return cardsInOrder(hotRankingService.hotProjects(CursorUtils.clampSize(size)));
+        }
         if ("likes".equals(sort)) {
-            return projectRepository.findAllByOrderByLikeCountDesc();
+            return projectRepository.findCardsByLikes(Limit.unlimited());
         }
-        return projectRepository.findAllByOrderByCreatedAtDesc();
+        return projectRepository.findCardsByLatest(Limit.unlimited());
     }
 
-    // 搜索作品
+    // 游标分页的作品流：sort = latest (默认) / likes，cursor 为上一页返回的 nextCursor
+    @GetMapping("/feed")
+    public ResponseEntity<?> getProjectFeed(@RequestParam(required = false) String sort,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size) {
+        int pageSize = CursorUtils.clampSize(size);
+        Limit limit = Limit.of(pageSize + 1); // 多取一条判断是否还有下一页
+        boolean byLikes = "likes".equals(sort);
+        List<ProjectCard> rows;
+        try {
+            if (cursor == null || cursor.isBlank()) {
+                rows = byLikes ? projectRepository.findCardsByLikes(limit) : projectRepository.findCardsByLatest(limit);
+            } else {
+                CursorUtils.Cursor c = CursorUtils.decode(cursor);
+                rows = byLikes
+                        ? projectRepository.findCardsByLikesBefore(Integer.parseInt(c.key()), c.id(), limit)
+                        : projectRepository.findCardsByLatestBefore(LocalDateTime.parse(c.key()), c.id(), limit);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("无效的游标");
+        }
+        return ResponseEntity.ok(byLikes
+                ? CursorUtils.page(rows, pageSize, ProjectCard::getLikeCount, ProjectCard::getId)
+                : CursorUtils.page(rows, pageSize, ProjectCard::getCreatedAt, ProjectCard::getId));
+    }
+
+    // 搜索作品：走 SearchService 的倒排索引，按相关度排序
     @GetMapping("/search")
-    public List<Project> searchProjects(@RequestParam String keyword) {
-        return projectRepository.findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(keyword, keyword);
+    public List<ProjectCard> searchProjects(@RequestParam String keyword) {
+        List<Long> ids = searchService.search(keyword, SearchService.TYPE_PROJECT, 0, CursorUtils.MAX_PAGE_SIZE)
+                .items().stream().map(SearchService.Hit::id).toList();
+        return cardsInOrder(ids);
+    }
+
+    // 按 id 回表取卡片；IN 查询不保证顺序，按传入的顺序 (相关度 / 热度) 重新排一下
+    private List<ProjectCard> cardsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<Long, ProjectCard> cards = projectRepository.findCardsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProjectCard::getId, Function.identity()));
+        return ids.stream().map(cards::get).filter(Objects::nonNull).toList();
     }
 
     // 获取单个作品详情（同时增加播放数）
     @GetMapping("/{id}")
-    public ResponseEntity<Project> getProject(@PathVariable Long id) {
+    public ResponseEntity<ProjectDetail> getProject(@PathVariable Long id, WebRequest request,
+                                              HttpServletRequest servletRequest, @AuthenticationPrincipal AuthUser user) {
+        if (versions.checkNotModified(request, ResourceVersionService.PROJECTS, id)) {
+            viewCounterService.recordProjectView(id);
+            uniqueVisitorService.record(VisitorSketch.PROJECT, id, uniqueVisitorService.visitorOf(user, servletRequest));
+            return null;
+        }
         return projectRepository.findById(id).map(p -> {
-            p.setViewCount(p.getViewCount() + 1); // 播放数+1
-            projectRepository.save(p);
-            return ResponseEntity.ok(p);
+            // 播放数+1：先记在内存，定时批量落库
+            viewCounterService.recordProjectView(id);
+            uniqueVisitorService.record(VisitorSketch.PROJECT, id, uniqueVisitorService.visitorOf(user, servletRequest));
+            int viewCount = p.getViewCount() + (int) viewCounterService.pendingProjectViews(id);
+            long uniqueVisitors = uniqueVisitorService.allTime(VisitorSketch.PROJECT, id);
+            versions.stamp(request, ResourceVersionService.PROJECTS, id);
+            return ResponseEntity.ok(ProjectDetail.of(p, viewCount, uniqueVisitors));
+        }).orElse(ResponseEntity.notFound().build());
+    }
+
+    // 播放统计：播放量 + 今天 / 近 7 天 / 全部时间的去重访客数
+    @GetMapping("/{id}/visitors")
+    public ResponseEntity<?> getVisitors(@PathVariable Long id) {
+        return projectRepository.findById(id).<ResponseEntity<?>>map(project -> {
+            UniqueVisitorService.Stats stats = uniqueVisitorService.stats(VisitorSketch.PROJECT, id);
+            return ResponseEntity.ok(Map.of(
+                    "viewCount", project.getViewCount() + viewCounterService.pendingProjectViews(id),
+                    "uniqueToday", stats.today(),
+                    "uniqueLast7Days", stats.last7Days(),
+                    "uniqueAllTime", stats.allTime()
+            ));
         }).orElse(ResponseEntity.notFound().build());
     }
 
     // 点赞作品
     @PostMapping("/{id}/like")
-    public ResponseEntity<?> toggleLike(@PathVariable Long id, org.springframework.security.core.Authentication authentication) {
-        if (authentication == null || authentication.getName().equals("anonymousUser")) {
+    public ResponseEntity<?> toggleLike(@PathVariable Long id, @AuthenticationPrincipal AuthUser user) {
+        if (user == null) {
             return ResponseEntity.status(401).body("请先登录");
         }
 
-        String username = authentication.getName();
-
-        return projectRepository.findById(id).map(project -> {
-            Optional<ProjectLike> existingLike = projectLikeRepository.findByProjectIdAndUsername(id, username);
-
-            boolean isLikedNow;
-            if (existingLike.isPresent()) {
-                // 已点赞 -> 取消点赞
-                projectLikeRepository.delete(existingLike.get());
-                project.setLikeCount(Math.max(0, project.getLikeCount() - 1));
-                isLikedNow = false;
-            } else {
-                // 未点赞 -> 新增点赞
-                ProjectLike newLike = new ProjectLike();
-                newLike.setProjectId(id);
-                newLike.setUsername(username);
-                newLike.setCreatedAt(LocalDateTime.now());
-                projectLikeRepository.save(newLike);
-
-                project.setLikeCount(project.getLikeCount() + 1);
-                isLikedNow = true;
-            }
-
-            projectRepository.save(project);
-
-            return ResponseEntity.ok(java.util.Map.of(
-                    "likeCount", project.getLikeCount(),
-                    "isLiked", isLikedNow
-            ));
-        }).orElse(ResponseEntity.notFound().build());
+        return likeService.toggleProjectLike(id, user.id())
+                .<ResponseEntity<?>>map(result -> {
+                    versions.touch(ResourceVersionService.PROJECTS, id);
+                    return ResponseEntity.ok(java.util.Map.of(
+                            "likeCount", result.getLikeCount(),
+                            "isLiked", result.getLiked()
+                    ));
+                })
+                .orElse(ResponseEntity.notFound().build());
     }
 
     // 2. 获取当前用户的点赞状态
     @GetMapping("/{id}/like-status")
-    public ResponseEntity<Boolean> getLikeStatus(@PathVariable Long id, org.springframework.security.core.Authentication authentication) {
-        if (authentication == null || authentication.getName().equals("anonymousUser")) {
+    public ResponseEntity<Boolean> getLikeStatus(@PathVariable Long id, @AuthenticationPrincipal AuthUser user) {
+        if (user == null) {
             return ResponseEntity.ok(false);
         }
-        boolean hasLiked = projectLikeRepository.findByProjectIdAndUsername(id, authentication.getName()).isPresent();
+        boolean hasLiked = likeService.hasLikedProject(user.id(), id);
         return ResponseEntity.ok(hasLiked);
     }
 
     // 3. 获取点赞列表 (管理员专用)
     @GetMapping("/{id}/likes-list")
-    public ResponseEntity<List<ProjectLike>> getLikesList(@PathVariable Long id) {
-        return ResponseEntity.ok(projectLikeRepository.findByProjectIdOrderByCreatedAtDesc(id));
+    public ResponseEntity<List<LikeRecord>> getLikesList(@PathVariable Long id) {
+        return ResponseEntity.ok(likeService.projectLikers(id));
     }
 
     // 管理员：保存作品
     @PostMapping("/save")
     public Project saveProject(@RequestBody Project project) {
         // 权限校验已在 SecurityConfig 中通过 .hasRole("ADMIN") 处理
-        return projectRepository.save(project);
+        // 带 id 时是覆盖已有作品，先记下它原来引用的文件
+        Set<String> oldFiles = project.getId() == null ? Set.of() : projectRepository.findById(project.getId())
+                .map(fileStorageService::referencesOf).orElse(Set.of());
+        Project saved = projectRepository.save(project);
+        fileStorageService.updateReferences(oldFiles, fileStorageService.referencesOf(saved));
+        searchService.indexProject(saved);
+        hotRankingService.onProjectSaved(saved.getId(), saved.getCreatedAt());
+        versions.touch(ResourceVersionService.PROJECTS, saved.getId());
+        return saved;
     }
 
     // 管理员：删除作品
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteProject(@PathVariable Long id) {
-        projectRepository.deleteById(id);
+        projectRepository.findById(id).ifPresent(project -> {
+            projectRepository.delete(project);
+            likeService.deleteProjectLikes(id);
+            hotRankingService.onProjectDeleted(id);
+            uniqueVisitorService.deleteTarget(VisitorSketch.PROJECT, id);
+            searchService.removeProject(id);
+            versions.forget(ResourceVersionService.PROJECTS, id);
+            // 释放封面/媒体/附件的引用，没人用了才真正删盘
+            fileStorageService.release(fileStorageService.referencesOf(project));
+        });
         return ResponseEntity.ok("作品已删除");
     }
 
@@ -123,6 +224,7 @@ public class ProjectController {
             existing.setTitle(project.getTitle());
             existing.setDescription(project.getDescription());
             existing.setCategory(project.getCategory());
+            Set<String> oldFiles = fileStorageService.referencesOf(existing);
             // 如果前端传了新的 URL 才更新，防止覆盖为空
             if (project.getCoverUrl() != null && !project.getCoverUrl().isEmpty()) {
                 existing.setCoverUrl(project.getCoverUrl());
@@ -136,6 +238,10 @@ public class ProjectController {
             }
 
             projectRepository.save(existing);
+            // 新引用的文件 +1，被替换掉的旧文件 -1
+            fileStorageService.updateReferences(oldFiles, fileStorageService.referencesOf(existing));
+            searchService.indexProject(existing);
+            versions.touch(ResourceVersionService.PROJECTS, id);
             return ResponseEntity.ok("作品更新成功");
         }).orElse(ResponseEntity.notFound().build());
     }
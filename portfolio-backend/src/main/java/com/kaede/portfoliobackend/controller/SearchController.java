@@ -0,0 +1,27 @@
+package com.kaede.portfoliobackend.controller;
+
+import com.kaede.portfoliobackend.service.SearchService;
+import com.kaede.portfoliobackend.utils.CursorUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+
+    // 站内搜索：文章 + 作品，type 可选 article / project，page 从 0 开始
+    @GetMapping
+    public ResponseEntity<?> search(@RequestParam String q,
+                                    @RequestParam(required = false) String type,
+                                    @RequestParam(defaultValue = "0") int page,
+                                    @RequestParam(required = false) Integer size) {
+        if (q.isBlank()) {
+            return ResponseEntity.badRequest().body("搜索关键词不能为空");
+        }
+        return ResponseEntity.ok(searchService.search(q, type, Math.max(0, page), CursorUtils.clampSize(size)));
+    }
+}
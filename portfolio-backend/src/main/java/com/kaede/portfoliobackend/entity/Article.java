@@ -1,17 +1,24 @@
 package com.kaede.portfoliobackend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
 import jakarta.persistence.*;
 import lombok.Data;
-import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "articles")
+@Table(name = "articles", indexes = {
+        // 列表按 (created_at, id) 倒序做键集分页
+        @Index(name = "idx_articles_created_at_id", columnList = "created_at, id")
+})
 public class Article {
+    // 序列主键 + 批量分配 (一次取 50 个 id)，Hibernate 才能把 insert 攒成 JDBC 批量
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "articles_seq")
+    @SequenceGenerator(name = "articles_seq", sequenceName = "articles_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -22,6 +29,26 @@ public class Article {
     @Column(columnDefinition = "TEXT")
     private String content; // 存储 Markdown 源码
 
+    // 以下由 MarkdownService 按 content 渲染生成，只读：前端传上来的值一律忽略
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(columnDefinition = "TEXT")
+    private String contentHtml; // 过滤过的 HTML，详情页直接用
+
+    @JsonRawValue
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(columnDefinition = "TEXT")
+    private String toc; // 目录 JSON：[{"level":2,"text":"...","id":"..."}]
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer readingMinutes;
+
+    @JsonIgnore
+    @Column(length = 64)
+    private String contentHash; // 渲染时 content 的 SHA-256，正文没变就不重新渲染
+
+    @JsonIgnore
+    private Integer renderVersion; // 渲染时的 MarkdownService.RENDER_VERSION，渲染规则变了就重新渲染
+
     private String category;
 
     private String coverUrl;
@@ -30,8 +57,8 @@ public class Article {
 
     private Integer likeCount = 0; // 新增加的点赞字段
 
-    @CreationTimestamp
-    private LocalDateTime createdAt;
+    // 和 Project / Comment 一样在 Java 侧赋默认值 (不用 @CreationTimestamp)，批量导入时才能保留原来的发布时间
+    private LocalDateTime createdAt = LocalDateTime.now();
 
     @UpdateTimestamp
     private LocalDateTime updatedAt;
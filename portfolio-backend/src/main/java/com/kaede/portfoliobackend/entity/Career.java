@@ -12,8 +12,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Career {
+    // 序列主键 + 批量分配 (一次取 50 个 id)，Hibernate 才能把 insert 攒成 JDBC 批量
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "career_seq")
+    @SequenceGenerator(name = "career_seq", sequenceName = "career_seq", allocationSize = 50)
     private Long id;
 
     private String startDate; // 存储格式如 "2026-02-11"
@@ -7,10 +7,17 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+        // 按文章分页取顶层评论 / 按父评论取回复
+        // 带上 id：游标条件 (created_at, id) < (?, ?) 整个落在索引上
+        @Index(name = "idx_comments_article_created_id", columnList = "article_id, created_at, id"),
+        @Index(name = "idx_comments_parent_id", columnList = "parent_id")
+})
 public class Comment {
+    // 序列主键 + 批量分配 (一次取 50 个 id)，Hibernate 才能把 insert 攒成 JDBC 批量
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_seq")
+    @SequenceGenerator(name = "comments_seq", sequenceName = "comments_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, columnDefinition = "TEXT")
@@ -0,0 +1,43 @@
+package com.kaede.portfoliobackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@IdClass(ContentLike.Key.class)
+@Table(name = "content_likes", indexes = {
+        // 某个用户点过赞的全部目标 (填充 LikeService 的缓存)，三列都在索引里，只扫索引不回表
+        @Index(name = "idx_content_likes_user", columnList = "user_id, target_type, target_id")
+})
+public class ContentLike {
+    public static final short ARTICLE = 1;
+    public static final short PROJECT = 2;
+
+    // 复合主键 (类型, 目标, 用户)：同一个人对同一个目标只能有一行，
+    // "点过没有"、"一共多少赞" 都只走主键索引；全是整数列，比存用户名紧凑得多
+    @Id
+    private Short targetType;
+
+    @Id
+    private Long targetId;
+
+    @Id
+    private Long userId;
+
+    private LocalDateTime createdAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Short targetType;
+        private Long targetId;
+        private Long userId;
+    }
+}
@@ -5,11 +5,17 @@ import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "projects")
+@Table(name = "projects", indexes = {
+        // 列表"最新"/"最多点赞"两种排序的键集分页
+        @Index(name = "idx_projects_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_projects_like_count_id", columnList = "like_count, id")
+})
 @Data
 public class Project {
+    // 序列主键 + 批量分配 (一次取 50 个 id)，Hibernate 才能把 insert 攒成 JDBC 批量
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "projects_seq")
+    @SequenceGenerator(name = "projects_seq", sequenceName = "projects_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -0,0 +1,30 @@
+package com.kaede.portfoliobackend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 内容寻址的上传文件
+ * 文件名就是内容的 SHA-256，相同内容只落盘一次；refCount 记录有多少个文章/作品引用它，
+ * 为 0 且上传时间超过宽限期时才删除磁盘文件。
+ */
+@Data
+@Entity
+@Table(name = "stored_files")
+public class StoredFile {
+    @Id
+    private String path;     // uploads 下的相对路径，如 "media/<sha256>.mp4"
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    private Long size;
+
+    private Integer refCount = 0;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime uploadedAt = LocalDateTime.now(); // 最近一次上传时间，宽限期从这里算
+}
@@ -0,0 +1,44 @@
+package com.kaede.portfoliobackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@Entity
+@IdClass(VisitorSketch.Key.class)
+@Table(name = "visitor_sketches")
+public class VisitorSketch {
+    // 目标类型与 content_likes 一致：1 文章，2 作品
+    public static final short ARTICLE = ContentLike.ARTICLE;
+    public static final short PROJECT = ContentLike.PROJECT;
+
+    // 全部时间的累计草图用这一天作为日期 (所有日草图的并集)
+    public static final LocalDate ALL_TIME = LocalDate.EPOCH;
+
+    @Id
+    private Short targetType;
+
+    @Id
+    private Long targetId;
+
+    @Id
+    private LocalDate visitDate;
+
+    // HyperLogLog 序列化后的字节 (访客少时是稀疏格式，通常几十字节到 4KB)
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] sketch;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Short targetType;
+        private Long targetId;
+        private LocalDate visitDate;
+    }
+}
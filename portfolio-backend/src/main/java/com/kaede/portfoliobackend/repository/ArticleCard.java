@@ -0,0 +1,25 @@
+package com.kaede.portfoliobackend.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文章列表卡片 (接口投影)
+ * 只查卡片需要的列，不带 Markdown 正文 content
+ */
+public interface ArticleCard {
+    Long getId();
+
+    String getTitle();
+
+    String getSummary();
+
+    String getCategory();
+
+    String getCoverUrl();
+
+    Integer getViewCount();
+
+    Integer getLikeCount();
+
+    LocalDateTime getCreatedAt();
+}
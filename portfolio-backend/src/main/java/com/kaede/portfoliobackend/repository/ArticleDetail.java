@@ -0,0 +1,47 @@
+package com.kaede.portfoliobackend.repository;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.kaede.portfoliobackend.entity.Article;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文章详情 (公开接口)
+ * 只带渲染好的 HTML 和目录，不带 Markdown 源码；编辑器要源码走管理员的 /api/articles/{id}/source
+ */
+@Data
+public class ArticleDetail {
+    private Long id;
+    private String title;
+    private String summary;
+    private String contentHtml;
+    @JsonRawValue
+    private String toc;
+    private Integer readingMinutes;
+    private String category;
+    private String coverUrl;
+    private Integer viewCount;
+    private Integer likeCount;
+    private Long uniqueVisitors; // 去重访客数 (HyperLogLog 估计)
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static ArticleDetail of(Article article, int viewCount, long uniqueVisitors) {
+        ArticleDetail d = new ArticleDetail();
+        d.setId(article.getId());
+        d.setTitle(article.getTitle());
+        d.setSummary(article.getSummary());
+        d.setContentHtml(article.getContentHtml());
+        d.setToc(article.getToc());
+        d.setReadingMinutes(article.getReadingMinutes());
+        d.setCategory(article.getCategory());
+        d.setCoverUrl(article.getCoverUrl());
+        d.setViewCount(viewCount);
+        d.setLikeCount(article.getLikeCount());
+        d.setUniqueVisitors(uniqueVisitors);
+        d.setCreatedAt(article.getCreatedAt());
+        d.setUpdatedAt(article.getUpdatedAt());
+        return d;
+    }
+}
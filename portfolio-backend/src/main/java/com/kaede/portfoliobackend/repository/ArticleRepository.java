@@ -1,25 +1,81 @@
 package com.kaede.portfoliobackend.repository;
 
 import com.kaede.portfoliobackend.entity.Article;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ArticleRepository extends JpaRepository<Article, Long> {
 
     List<Article> findAllByOrderByCreatedAtDesc();
 
+    // 列表卡片只查这些列，不带正文
+    String CARD_SELECT = """
+        SELECT a.id AS id, a.title AS title, a.summary AS summary, a.category AS category,
+               a.coverUrl AS coverUrl, a.viewCount AS viewCount, a.likeCount AS likeCount,
+               a.createdAt AS createdAt
+        FROM Article a
+        """;
+
+    // 最新文章第一页 (走 (created_at, id) 索引)
+    @Query(CARD_SELECT + "ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArticleCard> findCards(Limit limit);
+
+    // 最新文章：游标之后的下一页；行值比较 Postgres 直接当成一段索引范围来扫
+    @Query(CARD_SELECT + """
+        WHERE (a.createdAt, a.id) < (:createdAt, :id)
+        ORDER BY a.createdAt DESC, a.id DESC
+        """)
+    List<ArticleCard> findCardsBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    // 还没渲染过 HTML 的文章 (老数据)，或按旧版渲染规则渲染的，启动时补渲染
+    @Query("SELECT a.id FROM Article a WHERE a.contentHash IS NULL OR a.renderVersion IS NULL OR a.renderVersion < :version")
+    List<Long> findUnrenderedIds(@Param("version") int version);
+
+    // 只写渲染结果，不碰 updatedAt
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE Article a SET a.contentHtml = :html, a.toc = :toc, a.readingMinutes = :minutes, a.contentHash = :hash,
+            a.renderVersion = :version
+        WHERE a.id = :id
+        """)
+    int updateRendered(@Param("id") Long id, @Param("html") String html, @Param("toc") String toc,
+                       @Param("minutes") Integer minutes, @Param("hash") String hash, @Param("version") Integer version);
+
     // 自定义点赞逻辑：直接在数据库层面 +1，保证并发安全
     @Modifying
     @Transactional
     @Query("UPDATE Article a SET a.likeCount = a.likeCount + 1 WHERE a.id = :id")
     void incrementLikeCount(Long id);
 
-    // 同理，也可以给阅读量写一个
+    // 阅读量按增量累加：由 ViewCounterService 定时批量刷盘，所有 id 的增量一条 UPDATE 写完
     @Modifying
     @Transactional
-    @Query("UPDATE Article a SET a.viewCount = a.viewCount + 1 WHERE a.id = :id")
-    void incrementViewCount(Long id);
+    @Query(value = """
+        UPDATE articles a SET view_count = a.view_count + d.delta
+        FROM unnest(CAST(:ids AS bigint[]), CAST(:deltas AS int[])) AS d(id, delta)
+        WHERE a.id = d.id
+        """, nativeQuery = true)
+    int incrementViewCounts(@Param("ids") Long[] ids, @Param("deltas") Integer[] deltas);
+
+    // 热度排行的初始数据：每条的发布时间、浏览量，以及按点赞时间衰减到 :epoch 的点赞权重 (指数下限防止下溢)
+    @Query(value = """
+        SELECT a.id AS id, a.created_at AS "createdAt", a.view_count AS "viewCount",
+               CAST(COALESCE((SELECT sum(power(2.0, GREATEST(-1000,
+                         extract(epoch FROM l.created_at - CAST(:epoch AS timestamp)) / :halfLifeSeconds)))
+                         FROM content_likes l WHERE l.target_type = 1 AND l.target_id = a.id), 0) AS double precision) AS "likeWeight"
+        FROM articles a
+        """, nativeQuery = true)
+    List<HotSeed> findHotSeeds(@Param("epoch") LocalDateTime epoch, @Param("halfLifeSeconds") double halfLifeSeconds);
+
+    // 按 id 批量取卡片 (热度排行回表)
+    @Query(CARD_SELECT + "WHERE a.id IN :ids")
+    List<ArticleCard> findCardsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,19 +1,36 @@
 package com.kaede.portfoliobackend.repository;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
-@AllArgsConstructor
+@NoArgsConstructor
 public class CommentDTO {
     private Long id;
     private String content;
     private Long articleId;
     private Long userId;
     private String username;       // 发帖人名字
+    private String role;           // 发帖人角色 (前端据此显示管理员标识)
     private Long parentId;
-    private String parentUsername; // 被回复人名字
+    private String parentUsername; // 被回复人名字 (组装回复树时在内存里填)
     private LocalDateTime createdAt;
+    private List<CommentDTO> replies = new ArrayList<>(); // 子回复，按时间正序
+
+    // 供 JPQL 构造表达式 "SELECT new ...CommentDTO(...)" 使用
+    public CommentDTO(Long id, String content, Long articleId, Long userId, String username, String role,
+                      Long parentId, LocalDateTime createdAt) {
+        this.id = id;
+        this.content = content;
+        this.articleId = articleId;
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.parentId = parentId;
+        this.createdAt = createdAt;
+    }
 }
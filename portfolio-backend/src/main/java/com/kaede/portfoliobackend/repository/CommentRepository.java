@@ -1,41 +1,61 @@
 package com.kaede.portfoliobackend.repository;
 
 import com.kaede.portfoliobackend.entity.Comment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    /**
-     * 💡 关键修改：
-     * 1. 返回类型改为 List<Map<String, Object>>，这样能接收所有字段。
-     * 2. 使用 AS "别名" 强制让 SQL 返回前端需要的驼峰字段名 (createdAt, username 等)。
-     */
+    long countByArticleId(Long articleId);
+
+    // 评论 + 作者名/角色，直接构造成 CommentDTO
+    String DTO_SELECT = """
+        SELECT new com.kaede.portfoliobackend.repository.CommentDTO(
+            c.id, c.content, c.articleId, c.userId, u.username, u.role, c.parentId, c.createdAt)
+        FROM Comment c LEFT JOIN User u ON u.id = c.userId
+        """;
+
+    // 顶层评论第一页：最新的在前 (走 (article_id, created_at) 索引)
+    @Query(DTO_SELECT + """
+        WHERE c.articleId = :articleId AND c.parentId IS NULL
+        ORDER BY c.createdAt DESC, c.id DESC
+        """)
+    List<CommentDTO> findTopLevel(@Param("articleId") Long articleId, Limit limit);
+
+    // 顶层评论：游标之后的下一页
+    @Query(DTO_SELECT + """
+        WHERE c.articleId = :articleId AND c.parentId IS NULL
+          AND (c.createdAt, c.id) < (:createdAt, :id)
+        ORDER BY c.createdAt DESC, c.id DESC
+        """)
+    List<CommentDTO> findTopLevelBefore(@Param("articleId") Long articleId, @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id, Limit limit);
+
+    // 一批顶层评论下的整棵回复树 (递归 CTE 顺着 parent_id 往下走，每层走 parent_id 索引)，一条语句查完，按时间正序
+    // 两层都限定同一篇文章：parent_id 指到别的文章的脏数据不会被带进来
     @Query(value = """
-        SELECT 
-            c.id as "id",
-            c.content as "content",
-            c.article_id as "articleId",
-            c.user_id as "userId",
-            c.parent_id as "parentId",
-            c.created_at as "createdAt",
-            
-            u.username as "username",
-            u.role as "role",
-            
-            pu.username as "parentUsername"
-        FROM comments c
-        LEFT JOIN users u ON c.user_id = u.id
-        LEFT JOIN comments pc ON c.parent_id = pc.id
-        LEFT JOIN users pu ON pc.user_id = pu.id
-        WHERE c.article_id = :articleId
-        ORDER BY c.created_at ASC
+        WITH RECURSIVE tree AS (
+            SELECT c.id, 1 AS depth FROM comments c
+            WHERE c.parent_id IN (:rootIds) AND c.article_id = :articleId
+            UNION ALL
+            SELECT c.id, t.depth + 1 FROM comments c JOIN tree t ON c.parent_id = t.id
+            WHERE t.depth < :maxDepth AND c.article_id = :articleId
+        )
+        SELECT c.id AS id, c.content AS content, c.article_id AS "articleId", c.user_id AS "userId",
+               u.username AS username, u.role AS role, c.parent_id AS "parentId", c.created_at AS "createdAt"
+        FROM tree t
+        JOIN comments c ON c.id = t.id
+        LEFT JOIN users u ON u.id = c.user_id
+        ORDER BY c.created_at ASC, c.id ASC
         """, nativeQuery = true)
-    List<Map<String, Object>> findByArticleIdWithUsernames(@Param("articleId") Long articleId);
-}
\ No newline at end of file
+    List<CommentRow> findReplyTree(@Param("articleId") Long articleId, @Param("rootIds") Collection<Long> rootIds,
+                                   @Param("maxDepth") int maxDepth);
+}
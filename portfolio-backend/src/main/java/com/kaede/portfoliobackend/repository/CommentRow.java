@@ -0,0 +1,24 @@
+package com.kaede.portfoliobackend.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 评论 + 作者名/角色的一行 (原生 SQL 投影)，组装回复树时转成 CommentDTO
+ */
+public interface CommentRow {
+    Long getId();
+
+    String getContent();
+
+    Long getArticleId();
+
+    Long getUserId();
+
+    String getUsername();
+
+    String getRole();
+
+    Long getParentId();
+
+    LocalDateTime getCreatedAt();
+}
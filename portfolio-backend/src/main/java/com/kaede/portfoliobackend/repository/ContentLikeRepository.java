@@ -0,0 +1,130 @@
+package com.kaede.portfoliobackend.repository;
+
+import com.kaede.portfoliobackend.entity.ContentLike;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ContentLikeRepository extends JpaRepository<ContentLike, ContentLike.Key> {
+
+    // 某个用户点过赞的某类目标 id (走 (user_id, target_type, target_id) 索引)
+    @Query("SELECT l.targetId FROM ContentLike l WHERE l.userId = :userId AND l.targetType = :type")
+    List<Long> findTargetIds(@Param("userId") Long userId, @Param("type") short type);
+
+    // 点赞列表：谁在什么时候点的 (按时间倒序)
+    @Query(value = """
+        SELECT u.id AS id, u.username AS username, l.created_at AS "createdAt"
+        FROM content_likes l JOIN users u ON u.id = l.user_id
+        WHERE l.target_type = :type AND l.target_id = :id
+        ORDER BY l.created_at DESC
+        """, nativeQuery = true)
+    List<LikeRecord> findLikers(@Param("type") short type, @Param("id") Long id);
+
+    // 目标被删除时清掉它的点赞
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ContentLike l WHERE l.targetType = :type AND l.targetId = :id")
+    int deleteByTarget(@Param("type") short type, @Param("id") Long id);
+
+    /**
+     * 一条语句完成点赞切换：
+     * 1. 先尝试删除已有的点赞 (del)；
+     * 2. 删不到说明之前没点过，就插入一条 (ins)，复合主键 + ON CONFLICT 挡住并发的重复点击；
+     * 3. 最后按 ins/del 的行数相对更新 articles.like_count，并返回最新计数 (对账任务随后按真实行数校正)；
+     *    liked 按"没删到"算而不是"插进去了"：两次并发的首次点击，后到的那次插入撞上 ON CONFLICT，行是存在的，也应该返回已点赞；
+     * 4. 取消点赞时顺带返回被删掉的那条点赞的时间，热度排行按它撤掉当初那次点赞 (已衰减) 的分值。
+     * 文章不存在时不返回任何行。
+     */
+    @Transactional
+    @Query(value = """
+        WITH del AS (
+            DELETE FROM content_likes WHERE target_type = 1 AND target_id = :id AND user_id = :userId
+            RETURNING created_at
+        ), ins AS (
+            INSERT INTO content_likes (target_type, target_id, user_id, created_at)
+            SELECT 1, :id, :userId, now()
+            WHERE NOT EXISTS (SELECT 1 FROM del)
+              AND EXISTS (SELECT 1 FROM articles WHERE id = :id)
+            ON CONFLICT DO NOTHING
+            RETURNING 1
+        )
+        UPDATE articles
+        SET like_count = GREATEST(0, like_count + (SELECT count(*) FROM ins) - (SELECT count(*) FROM del))
+        WHERE id = :id
+        RETURNING like_count AS "likeCount", NOT EXISTS (SELECT 1 FROM del) AS "liked",
+                  (SELECT created_at FROM del) AS "unlikedCreatedAt"
+        """, nativeQuery = true)
+    Optional<LikeToggleResult> toggleArticle(@Param("id") Long id, @Param("userId") Long userId);
+
+    // 同上，作品版
+    @Transactional
+    @Query(value = """
+        WITH del AS (
+            DELETE FROM content_likes WHERE target_type = 2 AND target_id = :id AND user_id = :userId
+            RETURNING created_at
+        ), ins AS (
+            INSERT INTO content_likes (target_type, target_id, user_id, created_at)
+            SELECT 2, :id, :userId, now()
+            WHERE NOT EXISTS (SELECT 1 FROM del)
+              AND EXISTS (SELECT 1 FROM projects WHERE id = :id)
+            ON CONFLICT DO NOTHING
+            RETURNING 1
+        )
+        UPDATE projects
+        SET like_count = GREATEST(0, like_count + (SELECT count(*) FROM ins) - (SELECT count(*) FROM del))
+        WHERE id = :id
+        RETURNING like_count AS "likeCount", NOT EXISTS (SELECT 1 FROM del) AS "liked",
+                  (SELECT created_at FROM del) AS "unlikedCreatedAt"
+        """, nativeQuery = true)
+    Optional<LikeToggleResult> toggleProject(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * 对账：按点赞表的真实行数重算这些文章的 like_count，只改对不上的，返回被校正的 id
+     * 每个 id 的计数只扫主键索引里这个目标的那一段
+     */
+    @Transactional
+    @Query(value = """
+        UPDATE articles a
+        SET like_count = c.n
+        FROM (SELECT t.id, (SELECT count(*) FROM content_likes l WHERE l.target_type = 1 AND l.target_id = t.id) AS n
+              FROM unnest(CAST(:ids AS bigint[])) AS t(id)) c
+        WHERE a.id = c.id AND a.like_count IS DISTINCT FROM c.n
+        RETURNING a.id
+        """, nativeQuery = true)
+    List<Long> reconcileArticles(@Param("ids") Long[] ids);
+
+    @Transactional
+    @Query(value = """
+        UPDATE projects p
+        SET like_count = c.n
+        FROM (SELECT t.id, (SELECT count(*) FROM content_likes l WHERE l.target_type = 2 AND l.target_id = t.id) AS n
+              FROM unnest(CAST(:ids AS bigint[])) AS t(id)) c
+        WHERE p.id = c.id AND p.like_count IS DISTINCT FROM c.n
+        RETURNING p.id
+        """, nativeQuery = true)
+    List<Long> reconcileProjects(@Param("ids") Long[] ids);
+
+    // 全量对账 (启动时跑一次，兜住上次进程异常退出时没来得及对账的目标)
+    @Transactional
+    @Query(value = """
+        UPDATE articles a
+        SET like_count = (SELECT count(*) FROM content_likes l WHERE l.target_type = 1 AND l.target_id = a.id)
+        WHERE a.like_count IS DISTINCT FROM (SELECT count(*) FROM content_likes l WHERE l.target_type = 1 AND l.target_id = a.id)
+        RETURNING a.id
+        """, nativeQuery = true)
+    List<Long> reconcileAllArticles();
+
+    @Transactional
+    @Query(value = """
+        UPDATE projects p
+        SET like_count = (SELECT count(*) FROM content_likes l WHERE l.target_type = 2 AND l.target_id = p.id)
+        WHERE p.like_count IS DISTINCT FROM (SELECT count(*) FROM content_likes l WHERE l.target_type = 2 AND l.target_id = p.id)
+        RETURNING p.id
+        """, nativeQuery = true)
+    List<Long> reconcileAllProjects();
+}
@@ -0,0 +1,17 @@
+package com.kaede.portfoliobackend.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游标分页结果
+ * nextCursor 为 null 表示已经到底；否则原样带回给下一次请求的 cursor 参数
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+}
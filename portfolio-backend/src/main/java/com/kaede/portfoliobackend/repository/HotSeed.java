@@ -0,0 +1,17 @@
+package com.kaede.portfoliobackend.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 启动时装载热度排行用的一行 (原生 SQL 投影)
+ * likeWeight: 每个点赞按点赞时间衰减到基准时间后的合计
+ */
+public interface HotSeed {
+    Long getId();
+
+    LocalDateTime getCreatedAt();
+
+    Integer getViewCount();
+
+    Double getLikeWeight();
+}
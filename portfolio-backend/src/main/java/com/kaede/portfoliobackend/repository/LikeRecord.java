@@ -0,0 +1,14 @@
+package com.kaede.portfoliobackend.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 点赞列表的一行 (原生 SQL 投影)：id 为点赞用户的 id
+ */
+public interface LikeRecord {
+    Long getId();
+
+    String getUsername();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,16 @@
+package com.kaede.portfoliobackend.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 点赞切换语句的返回值 (原生 SQL 投影)
+ * likeCount: 切换后的最新点赞数；liked: 切换后当前用户是否处于"已点赞"状态；
+ * unlikedCreatedAt: 取消点赞时被删掉的那条点赞的点赞时间 (点赞时为 null)
+ */
+public interface LikeToggleResult {
+    Integer getLikeCount();
+
+    Boolean getLiked();
+
+    LocalDateTime getUnlikedCreatedAt();
+}
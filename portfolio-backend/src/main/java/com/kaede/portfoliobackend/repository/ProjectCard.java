@@ -0,0 +1,27 @@
+package com.kaede.portfoliobackend.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 作品列表卡片 (接口投影)
+ * 简介只截取前 200 个字符，不带媒体和附件地址
+ */
+public interface ProjectCard {
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    String getCategory();
+
+    String getCoverUrl();
+
+    String getMediaType();
+
+    Integer getViewCount();
+
+    Integer getLikeCount();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,43 @@
+package com.kaede.portfoliobackend.repository;
+
+import com.kaede.portfoliobackend.entity.Project;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 作品详情 (公开接口)
+ * 浏览量叠加了还没落库的增量，另带去重访客数；不直接返回托管实体，免得这些数字被当成脏数据写回
+ */
+@Data
+public class ProjectDetail {
+    private Long id;
+    private String title;
+    private String description;
+    private String category;
+    private String coverUrl;
+    private String mediaUrl;
+    private String mediaType;
+    private String attachmentUrl;
+    private Integer viewCount;
+    private Integer likeCount;
+    private Long uniqueVisitors; // 去重访客数 (HyperLogLog 估计)
+    private LocalDateTime createdAt;
+
+    public static ProjectDetail of(Project project, int viewCount, long uniqueVisitors) {
+        ProjectDetail d = new ProjectDetail();
+        d.setId(project.getId());
+        d.setTitle(project.getTitle());
+        d.setDescription(project.getDescription());
+        d.setCategory(project.getCategory());
+        d.setCoverUrl(project.getCoverUrl());
+        d.setMediaUrl(project.getMediaUrl());
+        d.setMediaType(project.getMediaType());
+        d.setAttachmentUrl(project.getAttachmentUrl());
+        d.setViewCount(viewCount);
+        d.setLikeCount(project.getLikeCount());
+        d.setUniqueVisitors(uniqueVisitors);
+        d.setCreatedAt(project.getCreatedAt());
+        return d;
+    }
+}
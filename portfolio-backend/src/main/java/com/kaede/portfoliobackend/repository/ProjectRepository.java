@@ -1,9 +1,15 @@
 package com.kaede.portfoliobackend.repository;
 
 import com.kaede.portfoliobackend.entity.Project;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,4 +23,56 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
 
     // 3. 搜索功能（匹配标题或描述，忽略大小写）
     List<Project> findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(String title, String desc);
+
+    // 列表卡片：简介截断到 200 字符，不带媒体/附件地址
+    String CARD_SELECT = """
+        SELECT p.id AS id, p.title AS title, substring(p.description, 1, 200) AS description,
+               p.category AS category, p.coverUrl AS coverUrl, p.mediaType AS mediaType,
+               p.viewCount AS viewCount, p.likeCount AS likeCount, p.createdAt AS createdAt
+        FROM Project p
+        """;
+
+    // 最新发布：第一页 / 游标之后的下一页 (走 (created_at, id) 索引)
+    @Query(CARD_SELECT + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProjectCard> findCardsByLatest(Limit limit);
+
+    @Query(CARD_SELECT + """
+        WHERE (p.createdAt, p.id) < (:createdAt, :id)
+        ORDER BY p.createdAt DESC, p.id DESC
+        """)
+    List<ProjectCard> findCardsByLatestBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    // 最多点赞：第一页 / 游标之后的下一页 (走 (like_count, id) 索引)
+    @Query(CARD_SELECT + "ORDER BY p.likeCount DESC, p.id DESC")
+    List<ProjectCard> findCardsByLikes(Limit limit);
+
+    @Query(CARD_SELECT + """
+        WHERE (p.likeCount, p.id) < (:likeCount, :id)
+        ORDER BY p.likeCount DESC, p.id DESC
+        """)
+    List<ProjectCard> findCardsByLikesBefore(@Param("likeCount") Integer likeCount, @Param("id") Long id, Limit limit);
+
+    // 按 id 批量取卡片 (搜索结果回表)
+    @Query(CARD_SELECT + "WHERE p.id IN :ids")
+    List<ProjectCard> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 4. 播放量按增量累加：由 ViewCounterService 定时批量刷盘，所有 id 的增量一条 UPDATE 写完
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE projects p SET view_count = p.view_count + d.delta
+        FROM unnest(CAST(:ids AS bigint[]), CAST(:deltas AS int[])) AS d(id, delta)
+        WHERE p.id = d.id
+        """, nativeQuery = true)
+    int incrementViewCounts(@Param("ids") Long[] ids, @Param("deltas") Integer[] deltas);
+
+    // 热度排行的初始数据：每条的发布时间、浏览量，以及按点赞时间衰减到 :epoch 的点赞权重 (指数下限防止下溢)
+    @Query(value = """
+        SELECT p.id AS id, p.created_at AS "createdAt", p.view_count AS "viewCount",
+               CAST(COALESCE((SELECT sum(power(2.0, GREATEST(-1000,
+                         extract(epoch FROM l.created_at - CAST(:epoch AS timestamp)) / :halfLifeSeconds)))
+                         FROM content_likes l WHERE l.target_type = 2 AND l.target_id = p.id), 0) AS double precision) AS "likeWeight"
+        FROM projects p
+        """, nativeQuery = true)
+    List<HotSeed> findHotSeeds(@Param("epoch") LocalDateTime epoch, @Param("halfLifeSeconds") double halfLifeSeconds);
 }
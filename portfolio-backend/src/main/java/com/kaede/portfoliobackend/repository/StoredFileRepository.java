@@ -0,0 +1,75 @@
+package com.kaede.portfoliobackend.repository;
+
+import com.kaede.portfoliobackend.entity.StoredFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+    // 上传落盘后登记：新内容插入一行 (引用数 0)，已有内容只刷新上传时间，重新进入宽限期
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO stored_files (path, sha256, size, ref_count, created_at, uploaded_at)
+        VALUES (:path, :sha256, :size, 0, now(), now())
+        ON CONFLICT (path) DO UPDATE SET uploaded_at = now()
+        """, nativeQuery = true)
+    void register(@Param("path") String path, @Param("sha256") String sha256, @Param("size") long size);
+
+    // 多一个条目引用这个文件；不在表里的路径 (旧 UUID 文件、外链) 不受影响
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredFile f SET f.refCount = f.refCount + 1 WHERE f.path = :path")
+    int acquire(@Param("path") String path);
+
+    // 引用数 -1，返回剩余引用数；路径不存在时返回空
+    @Transactional
+    @Query(value = """
+        UPDATE stored_files SET ref_count = ref_count - 1
+        WHERE path = :path
+        RETURNING ref_count
+        """, nativeQuery = true)
+    Optional<Integer> release(@Param("path") String path);
+
+    // 引用数归零、且上传早于 before 的记录才删除，返回删除行数
+    @Modifying
+    @Transactional
+    @Query("""
+        DELETE FROM StoredFile f
+        WHERE f.path = :path AND f.refCount <= 0 AND f.uploadedAt < :before
+        """)
+    int deleteIfUnreferenced(@Param("path") String path, @Param("before") LocalDateTime before);
+
+    @Query("""
+        SELECT f.path FROM StoredFile f
+        WHERE f.refCount <= 0 AND f.uploadedAt < :before
+        """)
+    List<String> findUnreferenced(@Param("before") LocalDateTime before);
+
+    // 加 uploaded_at 列之前的旧记录补上时间，从现在开始算宽限期，不会一上线就被当成过期孤儿删掉
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.uploadedAt = CURRENT_TIMESTAMP WHERE f.uploadedAt IS NULL")
+    void fillMissingUploadTimes();
+
+    // 重算引用数：先全部清零，再按统计结果写回 (两条语句在同一个事务里)
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.refCount = 0")
+    void resetRefCounts();
+
+    @Modifying
+    @Query(value = """
+        UPDATE stored_files f SET ref_count = c.cnt
+        FROM unnest(CAST(:paths AS text[]), CAST(:counts AS int[])) AS c(path, cnt)
+        WHERE f.path = c.path
+        """, nativeQuery = true)
+    void setRefCounts(@Param("paths") String[] paths, @Param("counts") Integer[] counts);
+}
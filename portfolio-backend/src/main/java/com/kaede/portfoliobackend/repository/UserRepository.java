@@ -2,11 +2,19 @@ package com.kaede.portfoliobackend.repository;
 
 import com.kaede.portfoliobackend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     // 👈 声明这个方法，Spring Data JPA 会自动帮你实现 SQL 查询
     Optional<User> findByUsername(String username);
+
+    boolean existsByUsername(String username);
+
+    // 只取用户名，用来装载用户名布隆过滤器
+    @Query("select u.username from User u")
+    List<String> findAllUsernames();
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.kaede.portfoliobackend.repository;
+
+import com.kaede.portfoliobackend.entity.VisitorSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface VisitorSketchRepository extends JpaRepository<VisitorSketch, VisitorSketch.Key> {
+
+    // 某个目标一段日期内的日草图 (走主键范围扫描)
+    @Query("""
+        SELECT s FROM VisitorSketch s
+        WHERE s.targetType = :type AND s.targetId = :id AND s.visitDate BETWEEN :from AND :to
+        """)
+    List<VisitorSketch> findDays(@Param("type") short type, @Param("id") Long id,
+                                 @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // 清理过期的日草图；全部时间的累计草图 (日期为 ALL_TIME) 不删
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM VisitorSketch s WHERE s.visitDate < :before AND s.visitDate > :allTime")
+    int deleteDaysBefore(@Param("before") LocalDate before, @Param("allTime") LocalDate allTime);
+
+    // 目标被删除时清掉它的全部草图
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM VisitorSketch s WHERE s.targetType = :type AND s.targetId = :id")
+    int deleteByTarget(@Param("type") short type, @Param("id") Long id);
+}
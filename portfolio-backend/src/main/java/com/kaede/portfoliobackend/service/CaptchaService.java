@@ -0,0 +1,136 @@
+package com.kaede.portfoliobackend.service;
+
+import cn.hutool.captcha.CaptchaUtil;
+import cn.hutool.captcha.LineCaptcha;
+import com.kaede.portfoliobackend.utils.TimingWheelCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 验证码池
+ * 1. 后台线程提前画好一批验证码放进有界队列，接口只做一次出队，O(1) 返回；
+ * 2. 池子被刷空时才在请求线程上现画一张兜底 (计入 portfolio.captcha.pool.misses)；
+ * 3. 已发出、待校验的验证码放在时间轮缓存里，5 分钟过期，有容量上限，清理只看到期的那一格。
+ */
+@Service
+public class CaptchaService {
+
+    private static final Logger log = LoggerFactory.getLogger(CaptchaService.class);
+
+    // 验证码有效期 5 分钟
+    private static final long TTL_MILLIS = 300000;
+
+    public record Issued(String uuid, String img) {
+    }
+
+    private record Rendered(String code, String img) {
+    }
+
+    private final BlockingQueue<Rendered> pool;
+    private final int workers;
+    private final ExecutorService refillers;
+
+    // uuid -> 正确答案
+    private final TimingWheelCache<String, String> pending;
+
+    private final Timer generateTimer;
+    private final Counter poolMisses;
+
+    public CaptchaService(@Value("${captcha.pool-size:256}") int poolSize,
+                          @Value("${captcha.workers:2}") int workers,
+                          @Value("${captcha.max-pending:100000}") int maxPending,
+                          MeterRegistry meterRegistry) {
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+        this.workers = workers;
+        // 画图是纯 CPU 活，用少量平台线程 (守护线程，不拖住停机)
+        this.refillers = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "captcha-refill");
+            t.setDaemon(true);
+            return t;
+        });
+        this.pending = new TimingWheelCache<>(TTL_MILLIS, 1000, maxPending);
+        this.generateTimer = meterRegistry.timer("portfolio.captcha.generate");
+        this.poolMisses = meterRegistry.counter("portfolio.captcha.pool.misses");
+        Gauge.builder("portfolio.captcha.pool.size", pool, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("portfolio.captcha.pending", pending, TimingWheelCache::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void startRefill() {
+        for (int i = 0; i < workers; i++) {
+            refillers.submit(() -> {
+                // 池满时 put 阻塞，不会空转
+                while (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        pool.put(render());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException e) {
+                        log.warn("预生成验证码失败: {}", e.getMessage());
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 发一张验证码：从池里取，记下答案
+     */
+    public Issued issue() {
+        Rendered captcha = pool.poll();
+        if (captcha == null) {
+            poolMisses.increment();
+            captcha = render();
+        }
+        String uuid = UUID.randomUUID().toString();
+        pending.put(uuid, captcha.code());
+        return new Issued(uuid, captcha.img());
+    }
+
+    /**
+     * @return 正确答案；不存在或已过期时返回 null
+     */
+    public String getCode(String uuid) {
+        return pending.get(uuid);
+    }
+
+    // 校验通过后作废，防止重放
+    public void invalidate(String uuid) {
+        pending.remove(uuid);
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void expire() {
+        pending.advance();
+    }
+
+    private Rendered render() {
+        return generateTimer.record(() -> {
+            // 创建线段干扰的验证码 (宽 120, 高 40, 字符数 4, 干扰线 20)
+            LineCaptcha lineCaptcha = CaptchaUtil.createLineCaptcha(120, 40, 4, 20);
+            return new Rendered(lineCaptcha.getCode(), lineCaptcha.getImageBase64Data()); // "data:image/png;base64,..."
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        refillers.shutdownNow();
+        refillers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
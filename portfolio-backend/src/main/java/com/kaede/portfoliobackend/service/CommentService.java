@@ -0,0 +1,80 @@
+package com.kaede.portfoliobackend.service;
+
+import com.kaede.portfoliobackend.repository.CommentDTO;
+import com.kaede.portfoliobackend.repository.CommentRepository;
+import com.kaede.portfoliobackend.repository.CommentRow;
+import com.kaede.portfoliobackend.repository.CursorPage;
+import com.kaede.portfoliobackend.utils.CursorUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 评论楼层
+ * 顶层评论按游标分页，这一页的全部回复用一条递归查询取出，在服务端挂成树。
+ */
+@Service
+public class CommentService {
+
+    // 防御性上限：回复嵌套超过这么多层就不再往下查
+    private static final int MAX_DEPTH = 32;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    /**
+     * @param cursor 上一页返回的 nextCursor，第一页传 null；格式不对时抛 IllegalArgumentException
+     */
+    public CursorPage<CommentDTO> getThread(Long articleId, String cursor, Integer size) {
+        int pageSize = CursorUtils.clampSize(size);
+        Limit limit = Limit.of(pageSize + 1); // 多取一条判断是否还有下一页
+
+        List<CommentDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = commentRepository.findTopLevel(articleId, limit);
+        } else {
+            CursorUtils.Cursor c = CursorUtils.decode(cursor);
+            rows = commentRepository.findTopLevelBefore(articleId, parseTime(c.key()), c.id(), limit);
+        }
+        CursorPage<CommentDTO> page = CursorUtils.page(rows, pageSize, CommentDTO::getCreatedAt, CommentDTO::getId);
+        attachReplies(articleId, page.getItems());
+        return page;
+    }
+
+    private void attachReplies(Long articleId, List<CommentDTO> roots) {
+        if (roots.isEmpty()) return;
+        List<CommentRow> rows = commentRepository.findReplyTree(articleId, roots.stream().map(CommentDTO::getId).toList(), MAX_DEPTH);
+
+        // 1. id -> 节点，先把所有节点放进表，不依赖父节点先出现
+        Map<Long, CommentDTO> nodes = new HashMap<>();
+        roots.forEach(root -> nodes.put(root.getId(), root));
+        List<CommentDTO> replies = rows.stream().map(this::toDto).toList();
+        replies.forEach(reply -> nodes.put(reply.getId(), reply));
+
+        // 2. 按时间正序挂到父节点下，同一父节点下的回复自然有序
+        for (CommentDTO reply : replies) {
+            CommentDTO parent = nodes.get(reply.getParentId());
+            if (parent == null) continue;
+            reply.setParentUsername(parent.getUsername());
+            parent.getReplies().add(reply);
+        }
+    }
+
+    private CommentDTO toDto(CommentRow row) {
+        return new CommentDTO(row.getId(), row.getContent(), row.getArticleId(), row.getUserId(),
+                row.getUsername(), row.getRole(), row.getParentId(), row.getCreatedAt());
+    }
+
+    private LocalDateTime parseTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("无效的游标: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.kaede.portfoliobackend.service;
+
+import com.kaede.portfoliobackend.entity.Article;
+import com.kaede.portfoliobackend.entity.Career;
+import com.kaede.portfoliobackend.entity.Comment;
+import com.kaede.portfoliobackend.entity.Project;
+import com.kaede.portfoliobackend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 内容批量导入 / 导出 (NDJSON，一行一条：{"type":"article","data":{...}})
+ * 1. 导出：只读事务里用服务端游标 (fetchSize) 流式读库，写一行就 detach 一条，内存占用和数据量无关；
+ * 2. 导入：逐行读请求体，每 chunk-size 行提交一次事务，flush 之后 clear，持久化上下文不会越攒越大；
+ *    主键走序列批量分配，insert 由 Hibernate 攒成 JDBC 批量；
+ * 3. 导入的行一律分配新 id，评论的 articleId / parentId 按"旧 id -> 新 id"改写，所以可以导进已有数据的库；
+ *    用户不随文件导出，评论的文章 / 父评论不在本次导入里、或者 userId 在本库不存在的，跳过不导。
+ */
+@Service
+public class ContentTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentTransferService.class);
+
+    public static final String TYPE_ARTICLE = "article";
+    public static final String TYPE_PROJECT = "project";
+    public static final String TYPE_CAREER = "career";
+    public static final String TYPE_COMMENT = "comment";
+    // 导入结果里跳过的评论条数
+    public static final String SKIPPED_COMMENTS = "skippedComments";
+
+    // 导出顺序：评论放最后，导入时它引用的文章和父评论都已经有新 id 了
+    private static final Map<String, Class<?>> TYPES = new LinkedHashMap<>();
+
+    static {
+        TYPES.put(TYPE_CAREER, Career.class);
+        TYPES.put(TYPE_PROJECT, Project.class);
+        TYPES.put(TYPE_ARTICLE, Article.class);
+        TYPES.put(TYPE_COMMENT, Comment.class);
+    }
+
+    // 游标每次从数据库取多少行
+    private static final int FETCH_SIZE = 500;
+
+    @Value("${content-transfer.chunk-size:500}")
+    private int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private ResourceVersionService versions;
+
+    @Autowired
+    private MarkdownService markdownService;
+
+    @Autowired
+    private HotRankingService hotRankingService;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * 导入结果：各类型写入的条数 (另有 skippedComments：跳过的评论条数)
+     */
+    public record ImportResult(Map<String, Integer> counts) {
+    }
+
+    /**
+     * 导入时某一行解析失败；它之前的批次已经提交
+     */
+    public static class ImportException extends RuntimeException {
+        public ImportException(long lineNumber, int imported, String reason) {
+            super("第 " + lineNumber + " 行有误 (" + reason + ")，之前的 " + imported + " 条已导入");
+        }
+    }
+
+    public void exportAll(Writer writer) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        tx.executeWithoutResult(status -> TYPES.forEach((type, entityClass) -> exportType(writer, type, entityClass)));
+    }
+
+    private void exportType(Writer writer, String type, Class<?> entityClass) {
+        String jpql = "select e from " + entityClass.getSimpleName() + " e order by e.id";
+        try (Stream<?> rows = entityManager.createQuery(jpql, entityClass)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            rows.forEach(entity -> {
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("type", type);
+                line.put("data", entity);
+                try {
+                    writer.write(jsonMapper.writeValueAsString(line));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                // 写完就踢出持久化上下文，否则一次导出会把整张表留在内存里
+                entityManager.detach(entity);
+            });
+        }
+    }
+
+    public ImportResult importAll(BufferedReader reader) throws IOException {
+        ImportState state = new ImportState();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        boolean more = true;
+        while (more) {
+            List<Article> articles = new ArrayList<>();
+            List<Project> projects = new ArrayList<>();
+            // 1. 一个批次一个事务；批次内出错只回滚这一批
+            more = Boolean.TRUE.equals(tx.execute(status -> {
+                try {
+                    return importChunk(reader, state, articles, projects);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            // 2. 提交之后再计数、更新搜索索引，回滚的数据不会混进来
+            // 每提交一批就刷新版本戳：后面的批次出错时前面的已经落库，不能让 304 / 首页快照继续藏着它们
+            touchVersions(state);
+            state.pending.forEach((type, n) -> state.counts.merge(type, n, Integer::sum));
+            state.pending.clear();
+            articles.forEach(article -> {
+                fileStorageService.acquire(fileStorageService.referencesOf(article));
+                searchService.indexArticle(article);
+                hotRankingService.onArticleCreated(article.getId(), article.getCreatedAt());
+            });
+            projects.forEach(project -> {
+                fileStorageService.acquire(fileStorageService.referencesOf(project));
+                searchService.indexProject(project);
+                hotRankingService.onProjectSaved(project.getId(), project.getCreatedAt());
+            });
+        }
+
+        log.info("内容导入完成：{}", state.counts);
+        return new ImportResult(state.counts);
+    }
+
+    // 按刚提交的这一批涉及的集合刷新版本戳 (一批一次，不用每条都 touch)
+    private void touchVersions(ImportState state) {
+        if (state.pending.containsKey(TYPE_ARTICLE)) versions.touch(ResourceVersionService.ARTICLES);
+        if (state.pending.containsKey(TYPE_PROJECT)) versions.touch(ResourceVersionService.PROJECTS);
+        if (state.pending.containsKey(TYPE_CAREER)) versions.touch(ResourceVersionService.CAREERS);
+        state.commentedArticles.forEach(id -> versions.touch(ResourceVersionService.COMMENTS, id));
+        state.commentedArticles.clear();
+    }
+
+    // 读一批行并 persist，返回是否还有剩余
+    private boolean importChunk(BufferedReader reader, ImportState state,
+                                List<Article> articles, List<Project> projects) throws IOException {
+        int read = 0;
+        String line;
+        while (read < chunkSize && (line = reader.readLine()) != null) {
+            state.lineNumber++;
+            if (line.isBlank()) continue;
+            read++;
+            importLine(line, state, articles, projects);
+        }
+        // flush 把这一批按 batch_size 批量写出，clear 释放这一批的实体
+        entityManager.flush();
+        entityManager.clear();
+        return read == chunkSize;
+    }
+
+    private void importLine(String line, ImportState state, List<Article> articles, List<Project> projects) {
+        JsonNode node;
+        try {
+            node = jsonMapper.readTree(line);
+        } catch (JacksonException e) {
+            throw state.fail("不是合法的 JSON");
+        }
+        String type = node.path("type").asString("");
+        JsonNode data = node.path("data");
+        Class<?> entityClass = TYPES.get(type);
+        if (entityClass == null || !data.isObject()) {
+            throw state.fail("未知的类型 " + type);
+        }
+
+        Object entity;
+        try {
+            entity = jsonMapper.treeToValue(data, entityClass);
+        } catch (JacksonException e) {
+            throw state.fail("字段格式不对");
+        }
+        Long oldId = data.path("id").isIntegralNumber() ? data.path("id").asLong() : null;
+
+        // 一律分配新 id；评论的引用改写成导入后的 id
+        switch (entity) {
+            case Article article -> {
+                article.setId(null);
+                // 渲染结果不随文件导入，按正文重新生成
+                markdownService.renderInto(article);
+                entityManager.persist(article);
+                if (oldId != null) state.articleIds.put(oldId, article.getId());
+                articles.add(article);
+            }
+            case Project project -> {
+                project.setId(null);
+                entityManager.persist(project);
+                projects.add(project);
+            }
+            case Career career -> {
+                career.setId(null);
+                entityManager.persist(career);
+            }
+            case Comment comment -> {
+                // 文章 / 父评论不在本次导入里的，留着旧 id 会挂到本库里不相干的文章上；用户不存在的没法显示
+                Long articleId = state.articleIds.get(comment.getArticleId());
+                Long parentId = comment.getParentId() == null ? null : state.commentIds.get(comment.getParentId());
+                if (articleId == null || (comment.getParentId() != null && parentId == null)
+                        || !userExists(comment.getUserId(), state)) {
+                    state.pending.merge(SKIPPED_COMMENTS, 1, Integer::sum);
+                    return;
+                }
+                comment.setId(null);
+                comment.setArticleId(articleId);
+                comment.setParentId(parentId);
+                entityManager.persist(comment);
+                if (oldId != null) state.commentIds.put(oldId, comment.getId());
+                state.commentedArticles.add(articleId);
+            }
+            default -> throw state.fail("未知的类型 " + type);
+        }
+        state.pending.merge(type, 1, Integer::sum);
+    }
+
+    // 同一个用户的评论通常有很多条，查过的记下来
+    private boolean userExists(Long userId, ImportState state) {
+        if (userId == null) return false;
+        return state.users.computeIfAbsent(userId, userRepository::existsById);
+    }
+
+    // 跨批次的导入进度：行号、各类型条数、旧 id 到新 id 的映射
+    private static class ImportState {
+        long lineNumber;
+        final Map<String, Integer> counts = new LinkedHashMap<>();
+        // 当前批次的条数，提交后并入 counts
+        final Map<String, Integer> pending = new LinkedHashMap<>();
+        final Map<Long, Long> articleIds = new HashMap<>();
+        final Map<Long, Long> commentIds = new HashMap<>();
+        final Set<Long> commentedArticles = new HashSet<>();
+        final Map<Long, Boolean> users = new HashMap<>();
+
+        // 当前这一批会回滚，报错里只算已经提交的条数
+        ImportException fail(String reason) {
+            int committed = counts.entrySet().stream()
+                    .filter(e -> !e.getKey().equals(SKIPPED_COMMENTS))
+                    .mapToInt(Map.Entry::getValue).sum();
+            return new ImportException(lineNumber, committed, reason);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.kaede.portfoliobackend.service;
+
+import com.kaede.portfoliobackend.entity.Article;
+import com.kaede.portfoliobackend.entity.Project;
+import com.kaede.portfoliobackend.repository.ArticleRepository;
+import com.kaede.portfoliobackend.repository.ProjectRepository;
+import com.kaede.portfoliobackend.repository.StoredFileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 内容寻址的上传存储
+ * 1. 上传流写入临时目录 (不对外提供访问) 的同时计算 SHA-256 (一次读完，不再回读)；
+ * 2. 最终文件名 = 子目录 + 哈希 + 后缀，内容相同的文件只保留一份，URL 也永远不变，可以长期缓存；
+ * 3. stored_files 表的引用计数 = 有多少个条目 (文章/作品) 引用了这个文件：上传本身不算引用，
+ *    文章/作品保存、修改、删除时按它引用的 URL 集合 (封面、媒体、附件、正文里的图片链接) 做增减；
+ * 4. 引用数为 0 且上传超过宽限期的文件才删盘 (连同衍生图和 .gz)：编辑器里传了没保存的文件由定时任务清掉，
+ *    刚上传还没来得及保存的不会被误删。
+ */
+@Service
+public class FileStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
+
+    // 同一路径的"落盘 + 计数"与"减计数 + 删盘"必须互斥，按路径哈希分段加锁
+    private final ReentrantLock[] stripes = new ReentrantLock[64];
+
+    // uploads 下的文件链接，例如 "http://localhost:8080/uploads/covers/3f2a...9c.jpg"
+    private static final Pattern UPLOAD_URL = Pattern.compile("/uploads/([A-Za-z0-9._/-]+)");
+
+    @Value("${upload.path}")
+    private String uploadPath;
+
+    @Value("${upload.temp-path}")
+    private String tempPath;
+
+    @Value("${upload.orphan-grace-hours:24}")
+    private long orphanGraceHours;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private GzipSidecarService gzipSidecarService;
+
+    public FileStorageService() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * 保存上传文件
+     * @param subDir 子目录 (例如 "media/")，根目录传 ""
+     * @return uploads 下的相对路径，例如 "media/3f2a...9c.mp4"
+     */
+    public String store(MultipartFile file, String subDir) throws IOException {
+        Path dir = Paths.get(uploadPath, subDir);
+        Files.createDirectories(dir);
+
+        // 1. 边写临时文件边算哈希 (临时目录不在静态资源路径下，写了一半的文件不会被访问到)
+        Path tempDir = Paths.get(tempPath);
+        Files.createDirectories(tempDir);
+        Path temp = Files.createTempFile(tempDir, "upload-", ".tmp");
+        String sha256;
+        try {
+            MessageDigest digest = sha256Digest();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                in.transferTo(out);
+            }
+            sha256 = HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        String relativePath = subDir + sha256 + suffixOf(file.getOriginalFilename());
+        Path target = Paths.get(uploadPath, relativePath);
+
+        // 2. 已有相同内容就丢掉临时文件，否则改名成最终文件；登记文件 (引用数不变，等条目保存时再加)
+        ReentrantLock lock = lockFor(relativePath);
+        lock.lock();
+        try {
+            if (Files.exists(target)) {
+                Files.delete(temp);
+            } else {
+                moveIntoPlace(temp, target);
+                // 新内容才需要预压缩，已存在的文件之前压过了
+                gzipSidecarService.compressAsync(relativePath);
+            }
+            storedFileRepository.register(relativePath, sha256, Files.size(target));
+        } finally {
+            lock.unlock();
+            Files.deleteIfExists(temp);
+        }
+        return relativePath;
+    }
+
+    public Set<String> referencesOf(Article article) {
+        return referencedPaths(article.getCoverUrl(), article.getContent());
+    }
+
+    public Set<String> referencesOf(Project project) {
+        return referencedPaths(project.getCoverUrl(), project.getMediaUrl(), project.getAttachmentUrl());
+    }
+
+    /**
+     * 一个条目的引用从 before 变成 after：新引用的文件 +1，不再引用的 -1
+     * (一个条目引用同一个文件只算一次；不在 stored_files 里的旧 UUID 文件直接忽略)
+     */
+    public void updateReferences(Set<String> before, Set<String> after) {
+        for (String path : after) {
+            if (!before.contains(path)) storedFileRepository.acquire(path);
+        }
+        for (String path : before) {
+            if (!after.contains(path)) release(path);
+        }
+    }
+
+    public void acquire(Set<String> paths) {
+        updateReferences(Set.of(), paths);
+    }
+
+    public void release(Set<String> paths) {
+        updateReferences(paths, Set.of());
+    }
+
+    /**
+     * 启动时按现有的文章/作品重算全部引用数，兜住计数漂移 (以及按"上传次数"计数的旧数据)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recount() {
+        Map<String, Integer> counts = new HashMap<>();
+        articleRepository.findAll().forEach(a -> referencesOf(a).forEach(p -> counts.merge(p, 1, Integer::sum)));
+        projectRepository.findAll().forEach(p -> referencesOf(p).forEach(path -> counts.merge(path, 1, Integer::sum)));
+        transactionTemplate.executeWithoutResult(status -> {
+            storedFileRepository.fillMissingUploadTimes();
+            storedFileRepository.resetRefCounts();
+            storedFileRepository.setRefCounts(counts.keySet().toArray(String[]::new),
+                    counts.values().toArray(Integer[]::new));
+        });
+        log.info("上传文件引用数已按 {} 个被引用的文件重算", counts.size());
+    }
+
+    /**
+     * 清理没人引用、并且上传超过宽限期的文件 (编辑器里上传了但没保存的、被换掉的)
+     */
+    @Scheduled(fixedDelayString = "${upload.orphan-sweep-interval-ms:3600000}", initialDelay = 60000)
+    public void sweepOrphans() {
+        List<String> orphans = storedFileRepository.findUnreferenced(graceCutoff());
+        orphans.forEach(this::deleteIfOrphan);
+        if (!orphans.isEmpty()) log.info("清理了 {} 个无引用的上传文件", orphans.size());
+    }
+
+    // 文本 / URL 里引用到的上传文件 (uploads 下的相对路径)；衍生图算作引用原图
+    private Set<String> referencedPaths(String... texts) {
+        Set<String> paths = new HashSet<>();
+        for (String text : texts) {
+            if (text == null || text.isBlank()) continue;
+            Matcher m = UPLOAD_URL.matcher(text);
+            while (m.find()) {
+                String path = m.group(1);
+                String original = ImageVariantService.originalPathOf(path);
+                paths.add(original != null ? original : path);
+            }
+        }
+        return paths;
+    }
+
+    // 引用数 -1，没人引用且过了宽限期就删盘；刚上传的文件留给定时任务
+    private void release(String relativePath) {
+        Integer remaining = storedFileRepository.release(relativePath).orElse(null);
+        if (remaining != null && remaining <= 0) deleteIfOrphan(relativePath);
+    }
+
+    private void deleteIfOrphan(String relativePath) {
+        ReentrantLock lock = lockFor(relativePath);
+        lock.lock();
+        try {
+            if (storedFileRepository.deleteIfUnreferenced(relativePath, graceCutoff()) > 0) {
+                Files.deleteIfExists(Paths.get(uploadPath, relativePath));
+                imageVariantService.deleteVariants(relativePath);
+                gzipSidecarService.delete(relativePath);
+            }
+        } catch (IOException e) {
+            log.warn("删除无引用文件失败: {} ({})", relativePath, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private LocalDateTime graceCutoff() {
+        return LocalDateTime.now().minusHours(orphanGraceHours);
+    }
+
+    // 临时目录和 uploads 在同一个盘上时原子改名；不在同一个盘上退回普通移动 (持锁且目标不存在，不会冲突)
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target);
+        }
+    }
+
+    private ReentrantLock lockFor(String relativePath) {
+        return stripes[Math.floorMod(relativePath.hashCode(), stripes.length)];
+    }
+
+    // 后缀统一小写，且只保留字母数字，防止奇怪的文件名混进路径
+    private static String suffixOf(String originalFilename) {
+        if (originalFilename == null || !originalFilename.contains(".")) return "";
+        String suffix = originalFilename.substring(originalFilename.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        return suffix.matches("[a-z0-9]{1,10}") ? "." + suffix : "";
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.kaede.portfoliobackend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 预压缩旁路文件
+ * 1. 可压缩类型 (svg / pdf / 文本附件) 上传后在后台生成 "原文件.gz"，只压一次，用最高压缩级别；
+ * 2. 资源处理器按 Accept-Encoding 直接返回 .gz，请求时不再现场压缩；
+ * 3. 压完没省下 10% 的 (比如本身已压缩的 pdf) 不保留，省得白占磁盘。
+ */
+@Service
+public class GzipSidecarService {
+
+    private static final Logger log = LoggerFactory.getLogger(GzipSidecarService.class);
+
+    public static final String SUFFIX = ".gz";
+
+    private static final Set<String> COMPRESSIBLE = Set.of(
+            "svg", "pdf", "txt", "md", "csv", "json", "xml", "html", "htm", "css", "js", "log");
+
+    @Value("${upload.path}")
+    private String uploadPath;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public boolean isCompressible(String relativePath) {
+        int dot = relativePath.lastIndexOf('.');
+        return dot >= 0 && COMPRESSIBLE.contains(relativePath.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 后台生成 .gz，立即返回
+     * @param relativePath uploads 下的相对路径
+     */
+    public void compressAsync(String relativePath) {
+        if (!isCompressible(relativePath)) return;
+        executor.submit(() -> {
+            try {
+                compress(relativePath);
+            } catch (IOException e) {
+                log.warn("生成压缩文件失败: {} ({})", relativePath, e.getMessage());
+            }
+        });
+    }
+
+    public void delete(String relativePath) {
+        if (!isCompressible(relativePath)) return;
+        try {
+            Files.deleteIfExists(Paths.get(uploadPath, relativePath + SUFFIX));
+        } catch (IOException e) {
+            log.warn("删除压缩文件失败: {} ({})", relativePath, e.getMessage());
+        }
+    }
+
+    private void compress(String relativePath) throws IOException {
+        Path source = Paths.get(uploadPath, relativePath);
+        Path target = Paths.get(uploadPath, relativePath + SUFFIX);
+        if (!Files.exists(source) || Files.exists(target)) return;
+
+        // 先写临时文件，压完确认划算再原子改名
+        Path temp = Files.createTempFile(source.getParent(), "gzip-", ".tmp");
+        try {
+            try (InputStream in = Files.newInputStream(source);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024) {
+                     {
+                         def.setLevel(Deflater.BEST_COMPRESSION);
+                     }
+                 }) {
+                in.transferTo(out);
+            }
+            if (Files.size(temp) < Files.size(source) * 0.9) {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,156 @@
+package com.kaede.portfoliobackend.service;
+
+import com.kaede.portfoliobackend.config.QueryCountInspector;
+import com.kaede.portfoliobackend.entity.Career;
+import com.kaede.portfoliobackend.repository.ArticleCard;
+import com.kaede.portfoliobackend.repository.ArticleRepository;
+import com.kaede.portfoliobackend.repository.CareerRepository;
+import com.kaede.portfoliobackend.repository.ProjectCard;
+import com.kaede.portfoliobackend.repository.ProjectRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 首页聚合数据
+ * 1. 履历、最新文章卡片、最热作品卡片三个查询各开一个虚拟线程并行跑，共用一个截止时间；
+ * 2. 拼好的快照缓存在内存里，记下拼装时三个集合的版本号，任意一个集合被 touch 过就重新拼；
+ * 3. 同一时间只有一个请求在重建：有旧快照的请求不排队，直接拿旧快照；没有的才等；重建超时也先用旧快照顶上；
+ * 4. 返回的快照带着它自己的版本号，ETag 按它算，旧快照不会被当成新版本缓存在客户端。
+ */
+@Service
+public class HomeService {
+
+    private static final Logger log = LoggerFactory.getLogger(HomeService.class);
+
+    // 首页依赖的集合，任意一个变化都要重建快照
+    public static final String[] COLLECTIONS = {
+            ResourceVersionService.CAREERS, ResourceVersionService.ARTICLES, ResourceVersionService.PROJECTS
+    };
+
+    @Autowired
+    private CareerRepository careerRepository;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ResourceVersionService versions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private QueryCountInspector queryCountInspector;
+
+    @Value("${home.article-count:6}")
+    private int articleCount;
+
+    @Value("${home.project-count:6}")
+    private int projectCount;
+
+    @Value("${home.deadline-ms:2000}")
+    private long deadlineMs;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // 虚拟线程在 synchronized 里阻塞会占住载体线程，这里用 ReentrantLock
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public record Home(List<Career> careers, List<ArticleCard> articles, List<ProjectCard> projects) {
+    }
+
+    /**
+     * 首页数据 + 拼装时的版本号 (ResourceVersionService.version)
+     */
+    public record Snapshot(long version, Home home) {
+    }
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 首页数据超时且没有旧快照可用
+     */
+    public static class HomeUnavailableException extends RuntimeException {
+        public HomeUnavailableException(Throwable cause) {
+            super("首页数据加载超时", cause);
+        }
+    }
+
+    public Snapshot get() {
+        long version = versions.version(COLLECTIONS);
+        Snapshot current = snapshot;
+        if (current != null && current.version() == version) return current;
+
+        // 别人正在重建：有旧快照就直接用，不排队 (库慢的时候排队的请求会一个接一个地各等一次超时)
+        if (!rebuildLock.tryLock()) {
+            if (current != null) return current;
+            rebuildLock.lock();
+        }
+        try {
+            // 等锁期间别的请求可能已经重建好了
+            current = snapshot;
+            version = versions.version(COLLECTIONS);
+            if (current != null && current.version() == version) return current;
+
+            // 版本号在查询之前取：查询期间再有写入，下一个请求会发现版本对不上继续重建
+            Snapshot rebuilt = new Snapshot(version, load());
+            snapshot = rebuilt;
+            return rebuilt;
+        } catch (HomeUnavailableException e) {
+            if (current == null) throw e;
+            log.warn("首页数据重建失败，先返回旧快照 ({})", e.getCause().toString());
+            return current;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // 三个查询并行跑，整体超过截止时间就放弃；SQL 计数跟着任务走，仍然算在触发重建的请求上
+    private Home load() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<List<Career>> careers = CompletableFuture.supplyAsync(
+                queryCountInspector.propagate(careerRepository::findAllByOrderByStartDateDesc), executor);
+        CompletableFuture<List<ArticleCard>> articles = CompletableFuture.supplyAsync(
+                queryCountInspector.propagate(() -> articleRepository.findCards(Limit.of(articleCount))), executor);
+        CompletableFuture<List<ProjectCard>> projects = CompletableFuture.supplyAsync(
+                queryCountInspector.propagate(() -> projectRepository.findCardsByLikes(Limit.of(projectCount))), executor);
+        try {
+            CompletableFuture.allOf(careers, articles, projects).get(deadlineMs, TimeUnit.MILLISECONDS);
+            Home home = new Home(careers.join(), articles.join(), projects.join());
+            sample.stop(meterRegistry.timer("portfolio.home.build", "outcome", "success"));
+            return home;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HomeUnavailableException(e);
+        } catch (TimeoutException | ExecutionException e) {
+            careers.cancel(true);
+            articles.cancel(true);
+            projects.cancel(true);
+            sample.stop(meterRegistry.timer("portfolio.home.build", "outcome", "failed"));
+            throw new HomeUnavailableException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,152 @@
+package com.kaede.portfoliobackend.service;
+
+import com.kaede.portfoliobackend.repository.ArticleRepository;
+import com.kaede.portfoliobackend.repository.HotSeed;
+import com.kaede.portfoliobackend.repository.ProjectRepository;
+import com.kaede.portfoliobackend.utils.DecayedRanking;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * 文章 / 作品的热度排行 (sort=hot)
+ * 1. 发布、点赞、浏览都是一次带权重的事件，分值按半衰期随时间衰减，老内容不会靠历史点赞一直霸榜；
+ * 2. 排行放在内存跳表里 (DecayedRanking)，每次事件 O(log n) 更新，取热榜直接读跳表头部；
+ * 3. 启动时按数据库里的发布时间、浏览量和每个点赞的时间装载一次，之后只靠事件增量维护，定时 rebase。
+ */
+@Service
+public class HotRankingService {
+
+    private static final Logger log = LoggerFactory.getLogger(HotRankingService.class);
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Value("${hot.base-weight:10}")
+    private double baseWeight;
+
+    @Value("${hot.like-weight:5}")
+    private double likeWeight;
+
+    @Value("${hot.view-weight:1}")
+    private double viewWeight;
+
+    private final long halfLifeMillis;
+    private final DecayedRanking articles;
+    private final DecayedRanking projects;
+
+    public HotRankingService(@Value("${hot.half-life-hours:48}") long halfLifeHours) {
+        this.halfLifeMillis = halfLifeHours * 3600_000L;
+        long now = System.currentTimeMillis();
+        this.articles = new DecayedRanking(halfLifeMillis, now);
+        this.projects = new DecayedRanking(halfLifeMillis, now);
+    }
+
+    public List<Long> hotArticles(int n) {
+        return articles.top(n);
+    }
+
+    public List<Long> hotProjects(int n) {
+        return projects.top(n);
+    }
+
+    // 新发布的内容带一个初始分，否则要等第一次浏览才能上榜
+    public void onArticleCreated(Long id, LocalDateTime createdAt) {
+        articles.add(id, baseWeight, toMillis(createdAt));
+    }
+
+    public void onProjectSaved(Long id, LocalDateTime createdAt) {
+        if (!projects.contains(id)) projects.add(id, baseWeight, toMillis(createdAt));
+    }
+
+    public void onArticleDeleted(Long id) {
+        articles.remove(id);
+    }
+
+    public void onProjectDeleted(Long id) {
+        projects.remove(id);
+    }
+
+    /**
+     * @param unlikedCreatedAt 取消点赞时，被取消的那次点赞发生的时间
+     */
+    public void onArticleLike(Long id, boolean liked, LocalDateTime unlikedCreatedAt) {
+        onLike(articles, id, liked, unlikedCreatedAt);
+    }
+
+    public void onProjectLike(Long id, boolean liked, LocalDateTime unlikedCreatedAt) {
+        onLike(projects, id, liked, unlikedCreatedAt);
+    }
+
+    // 点赞按现在的时间加分；取消点赞按当初点赞的时间减分，减掉的正好是那次点赞衰减到今天剩下的分值
+    private void onLike(DecayedRanking ranking, Long id, boolean liked, LocalDateTime unlikedCreatedAt) {
+        if (liked) {
+            ranking.add(id, likeWeight, System.currentTimeMillis());
+        } else {
+            ranking.add(id, -likeWeight, toMillis(unlikedCreatedAt));
+        }
+    }
+
+    public void onArticleView(Long id) {
+        // 只给已经在榜上的条目加分，不存在的 id 刷浏览不会往排行里塞垃圾
+        if (articles.contains(id)) articles.add(id, viewWeight, System.currentTimeMillis());
+    }
+
+    public void onProjectView(Long id) {
+        if (projects.contains(id)) projects.add(id, viewWeight, System.currentTimeMillis());
+    }
+
+    /**
+     * 启动时装载；装载期间已经到来的事件是累加的，不会丢
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        load(articles, articleRepository::findHotSeeds, "文章");
+        load(projects, projectRepository::findHotSeeds, "作品");
+    }
+
+    /**
+     * 定时把基准时间挪到现在，分数整体缩小，防止放大倍数溢出
+     */
+    @Scheduled(fixedDelayString = "${hot.rebase-interval-ms:3600000}", initialDelayString = "${hot.rebase-interval-ms:3600000}")
+    public void rebase() {
+        long now = System.currentTimeMillis();
+        articles.rebase(now);
+        projects.rebase(now);
+    }
+
+    private void load(DecayedRanking ranking, BiFunction<LocalDateTime, Double, List<HotSeed>> query, String label) {
+        long epoch = ranking.epochMillis();
+        List<HotSeed> seeds = query.apply(toLocalDateTime(epoch), halfLifeMillis / 1000.0);
+        for (HotSeed seed : seeds) {
+            // 历史浏览没有时间，按发布时间算；点赞在 SQL 里已经按各自时间衰减到基准时间
+            long createdAt = seed.getCreatedAt() == null ? epoch : toMillis(seed.getCreatedAt());
+            int views = seed.getViewCount() == null ? 0 : seed.getViewCount();
+            ranking.add(seed.getId(), baseWeight + views * viewWeight, createdAt);
+            ranking.add(seed.getId(), likeWeight * seed.getLikeWeight(), epoch);
+        }
+        log.info("{}热度排行已装载: {} 条", label, seeds.size());
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? System.currentTimeMillis() : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,272 @@
+package com.kaede.portfoliobackend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 图片多尺寸衍生图
+ * 1. 上传落盘后把原图路径丢给后台虚拟线程，按 320 / 640 / 1280 宽度各缩一张，上传接口不等缩放；
+ * 2. 衍生图命名为 "哈希-640w.jpg"，和原图一样由内容决定，URL 在生成之前就能返回给前端；
+ * 3. 只用 JDK 自带的 ImageIO，支持 jpg / png；gif (动图) 和其它格式保持原样；
+ * 4. 解码前先只读文件头拿宽高，像素数超过上限的不解码 (防解压炸弹把堆撑爆)；
+ *    处理完 (包括跳过的) 写一个 ".variants" 标记文件，重复上传同一张图不再重新解码。
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    // 从小到大排列，挑尺寸时依赖这个顺序
+    public static final int[] WIDTHS = {320, 640, 1280};
+
+    private static final Set<String> SUPPORTED = Set.of("jpg", "jpeg", "png");
+
+    // "covers/3f2a...9c-640w.jpg" -> 原图 "covers/3f2a...9c.jpg" + 宽度 640
+    private static final Pattern VARIANT = Pattern.compile("^(.*)-(\\d+)w(\\.[a-z0-9]+)$");
+
+    // 处理完成的标记文件后缀："covers/3f2a...9c.jpg" -> "covers/3f2a...9c.jpg.variants"
+    private static final String DONE_MARKER = ".variants";
+
+    @Value("${upload.path}")
+    private String uploadPath;
+
+    // 解码上限 (宽 x 高)；按 4 字节一个像素算，4000 万像素约 160MB 堆
+    @Value("${upload.image-max-pixels:40000000}")
+    private long maxPixels;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 每张图一个虚拟线程；解码大图很吃内存和 CPU，用信号量限制同时缩放的数量
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits = new Semaphore(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
+    // 同一张图重复上传时，正在处理的就不再排队
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public ImageVariantService() {
+        // 不用 ImageIO 的磁盘缓存，直接在内存里解码
+        ImageIO.setUseCache(false);
+    }
+
+    public boolean isSupported(String relativePath) {
+        return SUPPORTED.contains(extensionOf(relativePath));
+    }
+
+    /**
+     * 后台生成衍生图，立即返回
+     * @param relativePath uploads 下的原图相对路径
+     */
+    public void generateAsync(String relativePath) {
+        if (!isSupported(relativePath) || !inFlight.add(relativePath)) return;
+        executor.submit(() -> {
+            try {
+                permits.acquire();
+                try {
+                    generate(relativePath);
+                } finally {
+                    permits.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("生成衍生图失败: {} ({})", relativePath, e.getMessage());
+            } finally {
+                inFlight.remove(relativePath);
+            }
+        });
+    }
+
+    /**
+     * 各宽度衍生图的访问地址 (宽度 -> URL)
+     * 还没生成或原图本来就比目标窄时，资源处理器会回退到原图，所以这些地址始终可用
+     */
+    public Map<Integer, String> variantUrls(String baseUrl, String relativePath) {
+        Map<Integer, String> urls = new LinkedHashMap<>();
+        if (!isSupported(relativePath)) return urls;
+        for (int width : WIDTHS) {
+            urls.put(width, baseUrl + variantPath(relativePath, width));
+        }
+        return urls;
+    }
+
+    public static String variantPath(String relativePath, int width) {
+        int dot = relativePath.lastIndexOf('.');
+        return relativePath.substring(0, dot) + "-" + width + "w" + relativePath.substring(dot);
+    }
+
+    /**
+     * 衍生图路径拆回原图路径，不是衍生图命名时返回 null
+     */
+    public static String originalPathOf(String variantPath) {
+        Matcher m = VARIANT.matcher(variantPath);
+        return m.matches() ? m.group(1) + m.group(3) : null;
+    }
+
+    /**
+     * 按期望宽度挑最合适的一档：不小于期望宽度里最小的那个
+     * @return 比最大档还宽时返回 0，表示直接用原图
+     */
+    public static int pickWidth(int requested) {
+        for (int width : WIDTHS) {
+            if (width >= requested) return width;
+        }
+        return 0;
+    }
+
+    /**
+     * 原图引用归零被删除时，一并删掉它的衍生图
+     */
+    public void deleteVariants(String relativePath) {
+        if (!isSupported(relativePath)) return;
+        try {
+            for (int width : WIDTHS) {
+                Files.deleteIfExists(Paths.get(uploadPath, variantPath(relativePath, width)));
+            }
+            Files.deleteIfExists(Paths.get(uploadPath, relativePath + DONE_MARKER));
+        } catch (IOException e) {
+            log.warn("删除衍生图失败: {} ({})", relativePath, e.getMessage());
+        }
+    }
+
+    private void generate(String relativePath) throws IOException {
+        Path source = Paths.get(uploadPath, relativePath);
+        // 内容寻址：标记文件存在说明这张图已经处理过了 (原图太窄、太大没生成衍生图的也算)
+        Path marker = Paths.get(uploadPath, relativePath + DONE_MARKER);
+        if (!Files.exists(source) || Files.exists(marker)) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        BufferedImage original = decode(source);
+        if (original != null) {
+            String format = extensionOf(relativePath);
+            boolean jpeg = format.equals("jpg") || format.equals("jpeg");
+            // 从大到小缩：每一档都从上一档缩出来，比每次都从原图缩省不少计算
+            BufferedImage current = original;
+            for (int i = WIDTHS.length - 1; i >= 0; i--) {
+                int width = WIDTHS[i];
+                // 原图不比这一档宽就不生成，访问时回退原图
+                if (original.getWidth() <= width) continue;
+                current = resize(current, width, jpeg);
+                write(current, jpeg ? "jpg" : "png", Paths.get(uploadPath, variantPath(relativePath, width)));
+            }
+            sample.stop(meterRegistry.timer("portfolio.image.variants", "format", format));
+        }
+        // 衍生图都写完了才落标记；中途失败下次上传会重来
+        Files.createFile(marker);
+    }
+
+    /**
+     * 先读文件头里的宽高，不超过像素上限才真正解码
+     * @return 解不出来或超过上限时返回 null
+     */
+    private BufferedImage decode(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) return null; // 后缀是图片但内容不是
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    log.warn("图片像素数 {} 超过上限 {}，不生成衍生图: {}", pixels, maxPixels, source.getFileName());
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // 每次最多缩一半，逐步逼近目标宽度，避免一次双线性缩太多产生锯齿
+    private BufferedImage resize(BufferedImage src, int targetWidth, boolean opaque) {
+        int type = opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage current = src;
+        int w = src.getWidth();
+        int h = src.getHeight();
+        do {
+            w = Math.max(targetWidth, w / 2);
+            h = Math.max(1, (int) Math.round((double) src.getHeight() * w / src.getWidth()));
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w > targetWidth);
+        return current;
+    }
+
+    // 先写临时文件再原子改名，资源处理器不会读到写了一半的图
+    private void write(BufferedImage image, String format, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "variant-", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if (format.equals("jpg")) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(0.82f);
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String extensionOf(String path) {
+        int dot = path.lastIndexOf('.');
+        return dot < 0 ? "" : path.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,182 @@
+package com.kaede.portfoliobackend.service;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.kaede.portfoliobackend.entity.ContentLike;
+import com.kaede.portfoliobackend.repository.ContentLikeRepository;
+import com.kaede.portfoliobackend.repository.LikeRecord;
+import com.kaede.portfoliobackend.repository.LikeToggleResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 点赞引擎
+ * 1. 文章和作品的点赞存在同一张 content_likes 表，主键 (类型, 目标, 用户id)，全是整数列；
+ * 2. 切换点赞只发一条原生 SQL (删除或插入 + 相对更新计数)，没有"先查后改"的竞态；
+ * 3. 切换过的目标记为脏，对账任务定时只重算这些目标的 like_count，计数不会长期漂移；
+ * 4. 活跃用户点过赞的 id 集合放在有上限的 LRU 缓存里，like-status 直接查内存。
+ */
+@Service
+public class LikeService {
+
+    private static final Logger log = LoggerFactory.getLogger(LikeService.class);
+
+    // 对账时一条 UPDATE 最多带多少个 id
+    private static final int RECONCILE_BATCH = 500;
+
+    @Autowired
+    private ContentLikeRepository contentLikeRepository;
+
+    @Autowired
+    private ResourceVersionService versions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private HotRankingService hotRankingService;
+
+    @Autowired
+    private LiveUpdateService liveUpdateService;
+
+    // key: 用户 id，value: 该用户点过赞的文章/作品 id；超出容量按最近最少使用淘汰，闲置超时也会过期
+    private final LRUCache<Long, Set<Long>> likedArticles;
+    private final LRUCache<Long, Set<Long>> likedProjects;
+
+    // 自上次对账以来切换过点赞的目标
+    private final Set<Long> dirtyArticles = ConcurrentHashMap.newKeySet();
+    private final Set<Long> dirtyProjects = ConcurrentHashMap.newKeySet();
+
+    public LikeService(@Value("${like-cache.max-users:10000}") int maxUsers,
+                       @Value("${like-cache.idle-timeout-ms:1800000}") long idleTimeout) {
+        this.likedArticles = CacheUtil.newLRUCache(maxUsers, idleTimeout);
+        this.likedProjects = CacheUtil.newLRUCache(maxUsers, idleTimeout);
+    }
+
+    public Optional<LikeToggleResult> toggleArticleLike(Long articleId, Long userId) {
+        Optional<LikeToggleResult> result = contentLikeRepository.toggleArticle(articleId, userId);
+        result.ifPresent(r -> {
+            dirtyArticles.add(articleId);
+            hotRankingService.onArticleLike(articleId, r.getLiked(), r.getUnlikedCreatedAt());
+            liveUpdateService.articleLikeChanged(articleId, r.getLikeCount());
+            applyToCache(likedArticles, userId, articleId, r.getLiked());
+        });
+        return result;
+    }
+
+    public Optional<LikeToggleResult> toggleProjectLike(Long projectId, Long userId) {
+        Optional<LikeToggleResult> result = contentLikeRepository.toggleProject(projectId, userId);
+        result.ifPresent(r -> {
+            dirtyProjects.add(projectId);
+            hotRankingService.onProjectLike(projectId, r.getLiked(), r.getUnlikedCreatedAt());
+            liveUpdateService.projectLikeChanged(projectId, r.getLikeCount());
+            applyToCache(likedProjects, userId, projectId, r.getLiked());
+        });
+        return result;
+    }
+
+    public boolean hasLikedArticle(Long userId, Long articleId) {
+        // 缓存未命中时一次性加载该用户的全部点赞，之后同一用户浏览任何文章都不再查库
+        return likedArticles.get(userId, () -> loadIds(contentLikeRepository.findTargetIds(userId, ContentLike.ARTICLE)))
+                .contains(articleId);
+    }
+
+    public boolean hasLikedProject(Long userId, Long projectId) {
+        return likedProjects.get(userId, () -> loadIds(contentLikeRepository.findTargetIds(userId, ContentLike.PROJECT)))
+                .contains(projectId);
+    }
+
+    public List<LikeRecord> articleLikers(Long articleId) {
+        return contentLikeRepository.findLikers(ContentLike.ARTICLE, articleId);
+    }
+
+    public List<LikeRecord> projectLikers(Long projectId) {
+        return contentLikeRepository.findLikers(ContentLike.PROJECT, projectId);
+    }
+
+    // 文章/作品删除时一起清掉点赞；缓存里残留的 id 指向已删除的目标，不影响结果
+    public void deleteArticleLikes(Long articleId) {
+        contentLikeRepository.deleteByTarget(ContentLike.ARTICLE, articleId);
+    }
+
+    public void deleteProjectLikes(Long projectId) {
+        contentLikeRepository.deleteByTarget(ContentLike.PROJECT, projectId);
+    }
+
+    /**
+     * 增量对账：只重算上次对账以来被切换过的目标
+     */
+    @Scheduled(fixedDelayString = "${like-reconcile.interval-ms:60000}")
+    public void reconcile() {
+        reconcile(dirtyArticles, contentLikeRepository::reconcileArticles, ResourceVersionService.ARTICLES, "article");
+        reconcile(dirtyProjects, contentLikeRepository::reconcileProjects, ResourceVersionService.PROJECTS, "project");
+    }
+
+    /**
+     * 启动时全量对账一次，兜住上次退出前还没对账的目标
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileAll() {
+        corrected(contentLikeRepository.reconcileAllArticles(), ResourceVersionService.ARTICLES, "article");
+        corrected(contentLikeRepository.reconcileAllProjects(), ResourceVersionService.PROJECTS, "project");
+    }
+
+    private void reconcile(Set<Long> dirty, Function<Long[], List<Long>> update, String collection, String type) {
+        if (dirty.isEmpty()) return;
+        // 1. 先把脏集合取走；对账期间新切换的目标留给下一轮
+        List<Long> ids = new ArrayList<>();
+        for (Long id : dirty) {
+            if (dirty.remove(id)) ids.add(id);
+        }
+        // 2. 分批重算，一批一条 UPDATE
+        for (int from = 0; from < ids.size(); from += RECONCILE_BATCH) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + RECONCILE_BATCH));
+            try {
+                corrected(update.apply(batch.toArray(Long[]::new)), collection, type);
+            } catch (RuntimeException e) {
+                // 3. 失败的这批放回去，下一轮重试
+                dirty.addAll(batch);
+                log.error("点赞计数对账失败，{} 个目标将在下次重试: {}", batch.size(), e.getMessage());
+            }
+        }
+    }
+
+    // 计数被校正过的目标要让 ETag 失效
+    private void corrected(List<Long> ids, String collection, String type) {
+        if (ids.isEmpty()) return;
+        ids.forEach(id -> versions.touch(collection, id));
+        meterRegistry.counter("portfolio.likes.reconciled", "type", type).increment(ids.size());
+        log.info("点赞计数对账校正了 {} 条 ({})", ids.size(), type);
+    }
+
+    private Set<Long> loadIds(Iterable<Long> ids) {
+        Set<Long> set = ConcurrentHashMap.newKeySet();
+        ids.forEach(set::add);
+        return set;
+    }
+
+    // 只更新已经在缓存里的用户；不在缓存里的等下次查询时从数据库整体加载
+    private void applyToCache(LRUCache<Long, Set<Long>> cache, Long userId, Long id, boolean liked) {
+        Set<Long> ids = cache.get(userId, false);
+        if (ids == null) return;
+        if (liked) {
+            ids.add(id);
+        } else {
+            ids.remove(id);
+        }
+    }
+}
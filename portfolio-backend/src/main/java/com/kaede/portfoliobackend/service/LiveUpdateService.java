@@ -0,0 +1,241 @@
+package com.kaede.portfoliobackend.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.kaede.portfoliobackend.entity.ContentLike;
+import com.kaede.portfoliobackend.repository.CommentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 点赞数 / 评论数实时推送 (SSE)
+ * 1. 点赞、评论只把条目标记为"有变化"并记下最新点赞数，不直接推；
+ * 2. 定时任务每个周期把有变化、且有人订阅的条目各推一条最新状态，一阵连点最多合并成一条；
+ * 3. 每个订阅者一个虚拟线程负责发送，信箱只留最新一条：客户端收得慢，旧状态直接被新状态覆盖丢掉，
+ *    推的都是绝对值 (不是增量)，丢掉中间状态不影响正确性，慢客户端也不会在服务端越积越多。
+ */
+@Service
+public class LiveUpdateService {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveUpdateService.class);
+
+    // 心跳占位，信箱空着的时候才放，不会挤掉真正的更新
+    private static final Update HEARTBEAT = new Update(null, null, null, null);
+
+    private record Topic(short type, long id) {
+    }
+
+    /**
+     * 推给前端的状态；没变的字段不输出
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Update(String type, Long id, Integer likeCount, Long commentCount) {
+        // 用新状态盖掉旧状态；新状态里没带的字段沿用旧的，不会因为丢弃旧状态而丢字段
+        Update over(Update older) {
+            if (older == null || older == HEARTBEAT) return this;
+            return new Update(type, id,
+                    likeCount != null ? likeCount : older.likeCount,
+                    commentCount != null ? commentCount : older.commentCount);
+        }
+    }
+
+    // 一个周期内攒下的变化：最新点赞数 (没变为 null) + 评论是否有变化
+    private record Change(Integer likeCount, boolean comments) {
+        Change merge(Change newer) {
+            return new Change(newer.likeCount != null ? newer.likeCount : likeCount, comments || newer.comments);
+        }
+    }
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Value("${live.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${live.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    private final Map<Topic, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Topic, Change> changes = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicInteger threadIds = new AtomicInteger();
+    private final Counter dropped;
+
+    public LiveUpdateService(MeterRegistry meterRegistry) {
+        Gauge.builder("portfolio.live.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+        this.dropped = meterRegistry.counter("portfolio.live.dropped");
+    }
+
+    /**
+     * 订阅人数已满
+     */
+    public static class TooManySubscribersException extends RuntimeException {
+        public TooManySubscribersException() {
+            super("实时推送连接数已满");
+        }
+    }
+
+    public SseEmitter subscribeArticle(Long id) {
+        return subscribe(new Topic(ContentLike.ARTICLE, id));
+    }
+
+    public SseEmitter subscribeProject(Long id) {
+        return subscribe(new Topic(ContentLike.PROJECT, id));
+    }
+
+    public void articleLikeChanged(Long id, Integer likeCount) {
+        changed(new Topic(ContentLike.ARTICLE, id), new Change(likeCount, false));
+    }
+
+    public void projectLikeChanged(Long id, Integer likeCount) {
+        changed(new Topic(ContentLike.PROJECT, id), new Change(likeCount, false));
+    }
+
+    public void articleCommentsChanged(Long articleId) {
+        changed(new Topic(ContentLike.ARTICLE, articleId), new Change(null, true));
+    }
+
+    /**
+     * 每个周期把攒下的变化推一次
+     */
+    @Scheduled(fixedDelayString = "${live.interval-ms:1000}")
+    public void publish() {
+        for (Topic topic : changes.keySet()) {
+            Change change = changes.remove(topic);
+            if (change == null) continue;
+            Set<Subscriber> subs = subscribers.get(topic);
+            // 没人订阅就不推，也不查评论数
+            if (subs == null || subs.isEmpty()) continue;
+            Long commentCount = change.comments() ? commentRepository.countByArticleId(topic.id()) : null;
+            Update update = new Update(topic.type() == ContentLike.ARTICLE ? "article" : "project",
+                    topic.id(), change.likeCount(), commentCount);
+            subs.forEach(sub -> sub.offer(update));
+        }
+    }
+
+    /**
+     * 心跳：及时发现已经断开的连接，也防止中间的代理因为空闲把连接掐掉
+     */
+    @Scheduled(fixedDelayString = "${live.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(subs -> subs.forEach(Subscriber::ping));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(subs -> subs.forEach(Subscriber::close));
+    }
+
+    private void changed(Topic topic, Change change) {
+        changes.merge(topic, change, Change::merge);
+    }
+
+    private SseEmitter subscribe(Topic topic) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new TooManySubscribersException();
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber sub = new Subscriber(topic, emitter);
+        // 加入也放在 compute 里：和 unregister 的 computeIfPresent 按 topic 互斥，
+        // 不会加进一个刚因为变空而被移出 map 的集合里 (那样就再也收不到推送和心跳)
+        subscribers.compute(topic, (k, subs) -> {
+            Set<Subscriber> next = subs == null ? ConcurrentHashMap.newKeySet() : subs;
+            next.add(sub);
+            return next;
+        });
+        emitter.onCompletion(sub::unregister);
+        emitter.onTimeout(sub::close);
+        emitter.onError(e -> sub.close());
+        sub.start();
+        return emitter;
+    }
+
+    private class Subscriber {
+
+        private final Topic topic;
+        private final SseEmitter emitter;
+        // 单格信箱：只留最新状态
+        private final AtomicReference<Update> mailbox = new AtomicReference<>();
+        private final Semaphore signal = new Semaphore(0);
+        private final AtomicBoolean registered = new AtomicBoolean(true);
+        private volatile Thread sender;
+
+        Subscriber(Topic topic, SseEmitter emitter) {
+            this.topic = topic;
+            this.emitter = emitter;
+        }
+
+        void start() {
+            sender = Thread.ofVirtual().name("sse-" + threadIds.incrementAndGet()).start(this::run);
+        }
+
+        void offer(Update update) {
+            Update stale = mailbox.getAndUpdate(update::over);
+            // 上一条还没发出去就被覆盖了：客户端跟不上，丢掉旧的
+            if (stale != null && stale != HEARTBEAT) dropped.increment();
+            signal.release();
+        }
+
+        void ping() {
+            if (mailbox.compareAndSet(null, HEARTBEAT)) signal.release();
+        }
+
+        // 发送循环：等信号，取信箱里最新的一条发出去；发送阻塞期间到达的更新会互相覆盖
+        private void run() {
+            try {
+                while (true) {
+                    signal.acquire();
+                    signal.drainPermits();
+                    Update update = mailbox.getAndSet(null);
+                    if (update == null) continue;
+                    if (update == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    } else {
+                        emitter.send(SseEmitter.event().name("update").data(update, MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                // 客户端断开 (或连接已经结束)
+                log.debug("SSE 订阅者断开: {}", e.getMessage());
+                close();
+            }
+        }
+
+        void close() {
+            unregister();
+            emitter.complete();
+        }
+
+        void unregister() {
+            if (!registered.compareAndSet(true, false)) return;
+            subscribers.computeIfPresent(topic, (k, subs) -> {
+                subs.remove(this);
+                return subs.isEmpty() ? null : subs;
+            });
+            subscriberCount.decrementAndGet();
+            Thread t = sender;
+            if (t != null && t != Thread.currentThread()) t.interrupt();
+        }
+    }
+}
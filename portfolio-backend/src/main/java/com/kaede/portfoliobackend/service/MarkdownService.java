@@ -0,0 +1,253 @@
+package com.kaede.portfoliobackend.service;
+
+import com.kaede.portfoliobackend.entity.Article;
+import com.kaede.portfoliobackend.repository.ArticleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.commonmark.Extension;
+import org.commonmark.ext.gfm.strikethrough.StrikethroughExtension;
+import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.node.AbstractVisitor;
+import org.commonmark.node.Code;
+import org.commonmark.node.Heading;
+import org.commonmark.node.Node;
+import org.commonmark.node.Text;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.safety.Cleaner;
+import org.jsoup.safety.Safelist;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 文章 Markdown 服务端渲染
+ * 1. 发布 / 编辑时渲染一次：HTML (白名单过滤) + 标题目录 + 预计阅读时长，和源码一起存进 articles 表；
+ * 2. 记下渲染时正文的 SHA-256 和渲染器版本，正文没变 (只改了标题、封面等) 就不重新渲染；
+ * 3. 详情接口直接返回存好的结果，读者不用再下载解析 Markdown；
+ * 4. 标题锚点一律带 "h-" 前缀 (正文里手写的 HTML 标题也是)，不会和页面本身的元素 id 撞上。
+ */
+@Service
+public class MarkdownService {
+
+    private static final Logger log = LoggerFactory.getLogger(MarkdownService.class);
+
+    // 阅读速度：中日韩文字按字数算，其它按词数算
+    private static final int CJK_CHARS_PER_MINUTE = 400;
+    private static final int WORDS_PER_MINUTE = 200;
+
+    /**
+     * 渲染规则 (锚点格式、白名单等) 变了就加一，启动时按旧版本渲染的文章会重新渲染
+     */
+    public static final int RENDER_VERSION = 2;
+
+    private static final String HEADING_ID_PREFIX = "h-";
+
+    private static final List<Extension> EXTENSIONS = List.of(TablesExtension.create(), StrikethroughExtension.create());
+
+    // 在 relaxed 的基础上放行表格对齐、代码块语言 (language-xxx) 和标题锚点
+    private static final Safelist SAFELIST = Safelist.relaxed()
+            .addTags("hr", "del", "s")
+            .addAttributes("h1", "id").addAttributes("h2", "id").addAttributes("h3", "id")
+            .addAttributes("h4", "id").addAttributes("h5", "id").addAttributes("h6", "id")
+            .addAttributes("code", "class")
+            .addAttributes("th", "align").addAttributes("td", "align")
+            .preserveRelativeLinks(true);
+
+    // 只用来判断相对地址是否合法，不会出现在输出里
+    private static final String SANITIZE_BASE_URI = "http://localhost/";
+
+    private final Parser parser = Parser.builder().extensions(EXTENSIONS).build();
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public record TocEntry(int level, String text, String id) {
+    }
+
+    public record Rendered(String html, List<TocEntry> toc, int readingMinutes) {
+    }
+
+    /**
+     * 正文有变化时重新渲染并写回实体 (不负责保存)
+     * @return 是否重新渲染了
+     */
+    public boolean renderInto(Article article) {
+        String content = Objects.requireNonNullElse(article.getContent(), "");
+        String hash = sha256(content);
+        if (hash.equals(article.getContentHash()) && article.getContentHtml() != null
+                && Objects.equals(article.getRenderVersion(), RENDER_VERSION)) return false;
+
+        Rendered rendered = render(content);
+        article.setContentHtml(rendered.html());
+        article.setToc(jsonMapper.writeValueAsString(rendered.toc()));
+        article.setReadingMinutes(rendered.readingMinutes());
+        article.setContentHash(hash);
+        article.setRenderVersion(RENDER_VERSION);
+        return true;
+    }
+
+    public Rendered render(String markdown) {
+        return meterRegistry.timer("portfolio.markdown.render").record(() -> {
+            Node document = parser.parse(markdown);
+
+            // 1. 先走一遍语法树给标题分配锚点，目录和 HTML 里的 id 同源
+            List<TocEntry> toc = new ArrayList<>();
+            Map<Node, String> headingIds = new IdentityHashMap<>();
+            Map<String, Integer> usedIds = new HashMap<>();
+            document.accept(new AbstractVisitor() {
+                @Override
+                public void visit(Heading heading) {
+                    String text = plainText(heading).trim();
+                    String id = HEADING_ID_PREFIX + uniqueId(slugOf(text), usedIds);
+                    headingIds.put(heading, id);
+                    toc.add(new TocEntry(heading.getLevel(), text, id));
+                }
+            });
+
+            // 2. 渲染 (原始 HTML 也照常输出)，再按白名单过滤掉脚本、事件属性和 javascript: 链接
+            HtmlRenderer renderer = HtmlRenderer.builder()
+                    .extensions(EXTENSIONS)
+                    .attributeProviderFactory(context -> (node, tagName, attributes) -> {
+                        String id = headingIds.get(node);
+                        if (id != null) attributes.put("id", id);
+                    })
+                    .build();
+            Document clean = new Cleaner(SAFELIST).clean(
+                    Jsoup.parseBodyFragment(renderer.render(document), SANITIZE_BASE_URI));
+            clean.outputSettings().prettyPrint(false);
+
+            // 3. 手写 HTML 标题的 id 也补上前缀 (白名单放行了 id，不加前缀就能写出 id="app" 之类覆盖页面元素)
+            Set<String> generated = new HashSet<>(headingIds.values());
+            for (Element heading : clean.select("h1[id], h2[id], h3[id], h4[id], h5[id], h6[id]")) {
+                String id = heading.id();
+                if (!generated.contains(id)) heading.id(HEADING_ID_PREFIX + id);
+            }
+            String html = clean.body().html();
+
+            // 4. 阅读时长按过滤后的纯文本估算，至少 1 分钟
+            int minutes = readingMinutes(clean.body().text());
+            return new Rendered(html, toc, minutes);
+        });
+    }
+
+    /**
+     * 启动时给还没渲染过、或按旧版渲染规则渲染的文章补上渲染结果
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void renderMissing() {
+        List<Long> ids = articleRepository.findUnrenderedIds(RENDER_VERSION);
+        for (Long id : ids) {
+            articleRepository.findById(id).ifPresent(article -> {
+                renderInto(article);
+                articleRepository.updateRendered(id, article.getContentHtml(), article.getToc(),
+                        article.getReadingMinutes(), article.getContentHash(), article.getRenderVersion());
+            });
+        }
+        if (!ids.isEmpty()) log.info("已补渲染 {} 篇文章的 HTML", ids.size());
+    }
+
+    private static String plainText(Node node) {
+        StringBuilder sb = new StringBuilder();
+        node.accept(new AbstractVisitor() {
+            @Override
+            public void visit(Text text) {
+                sb.append(text.getLiteral());
+            }
+
+            @Override
+            public void visit(Code code) {
+                sb.append(code.getLiteral());
+            }
+        });
+        return sb.toString();
+    }
+
+    // 保留各语言的字母和数字，空白换成连字符；"Spring Boot 入门" -> "spring-boot-入门"
+    private static String slugOf(String text) {
+        String slug = text.toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}\\s-]", "")
+                .trim()
+                .replaceAll("\\s+", "-");
+        return slug.isEmpty() ? "section" : slug;
+    }
+
+    // 重复的标题依次加 -1、-2
+    private static String uniqueId(String slug, Map<String, Integer> used) {
+        Integer n = used.get(slug);
+        if (n == null) {
+            used.put(slug, 0);
+            return slug;
+        }
+        String id;
+        do {
+            n++;
+            id = slug + "-" + n;
+        } while (used.containsKey(id));
+        used.put(slug, n);
+        used.put(id, 0);
+        return id;
+    }
+
+    private static int readingMinutes(String text) {
+        int cjk = 0;
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (isCjk(cp)) {
+                cjk++;
+                inWord = false;
+            } else if (Character.isLetterOrDigit(cp)) {
+                if (!inWord) words++;
+                inWord = true;
+            } else {
+                inWord = false;
+            }
+        }
+        double minutes = (double) cjk / CJK_CHARS_PER_MINUTE + (double) words / WORDS_PER_MINUTE;
+        return Math.max(1, (int) Math.ceil(minutes));
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static String sha256(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JDK 缺少 SHA-256 实现", e);
+        }
+    }
+}
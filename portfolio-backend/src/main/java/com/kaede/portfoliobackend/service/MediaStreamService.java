@@ -0,0 +1,245 @@
+package com.kaede.portfoliobackend.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 媒体文件分段传输 (HTTP Range)
+ * 1. 支持单段 / 多段 Range (206)、If-Range、ETag / Last-Modified 条件请求 (304)；
+ * 2. 单段和整文件优先交给 Tomcat 的 sendfile 直接从内核发到 socket，不经过 JVM 堆；
+ * 3. 容器不支持 sendfile 或多段响应时，用 FileChannel.transferTo 写出，同样不在堆上拷贝整块数据。
+ */
+@Service
+public class MediaStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaStreamService.class);
+
+    // Tomcat 约定的 sendfile 请求属性 (NIO 连接器默认开启)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // 一个请求最多接受这么多段，防止用大量碎片 Range 放大开销
+    private static final int MAX_RANGES = 16;
+
+    record Range(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    /**
+     * 把文件按请求头里的 Range / 条件头写到响应里
+     * @param file       已校验过的本地文件路径
+     * @param attachment true 时附带 Content-Disposition: attachment，触发浏览器下载
+     * @return 响应体的文件字节数 (304 / 416 / HEAD 为 0，多段不含分隔头)
+     */
+    public long stream(Path file, boolean attachment, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        long size = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        // 强 ETag：文件大小 + 修改时间，内容变了两者至少有一个会变
+        String etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+
+        // 1. 条件请求：If-None-Match / If-Modified-Since 命中直接 304 (同时写好 ETag 和 Last-Modified)
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return 0;
+        }
+
+        String contentType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (attachment) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"");
+        }
+
+        // 2. 解析 Range；If-Range 对不上时按整文件返回
+        List<Range> ranges = null;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, etag, lastModified)) {
+            ranges = parseRanges(rangeHeader, size);
+            if (ranges != null && ranges.isEmpty()) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return 0;
+            }
+        }
+        boolean head = "HEAD".equals(request.getMethod());
+
+        // 3. 整文件 / 单段 / 多段
+        if (ranges == null) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            response.setContentLengthLong(size);
+            if (head) return 0;
+            send(file, new Range(0, size - 1), request, response);
+            return size;
+        }
+        if (ranges.size() == 1) {
+            Range r = ranges.get(0);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + r.start() + "-" + r.end() + "/" + size);
+            response.setContentLengthLong(r.length());
+            if (head) return 0;
+            send(file, r, request, response);
+            return r.length();
+        }
+        sendMultipart(file, ranges, size, contentType, head, response);
+        return head ? 0 : ranges.stream().mapToLong(Range::length).sum();
+    }
+
+    // 单段：能 sendfile 就交给容器，否则自己 transferTo
+    private void send(Path file, Range r, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (r.length() <= 0) return;
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, r.start());
+            request.setAttribute(SENDFILE_END, r.end() + 1); // Tomcat 的 end 是开区间
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            transfer(channel, r, Channels.newChannel(response.getOutputStream()));
+        } catch (IOException e) {
+            // 拖动进度条时浏览器会主动断开旧连接，属于正常现象
+            log.debug("媒体传输中断: {} ({})", file.getFileName(), e.getMessage());
+        }
+    }
+
+    // 多段：multipart/byteranges，每段前写分隔头，段内容用 transferTo
+    private void sendMultipart(Path file, List<Range> ranges, long size, String contentType, boolean head,
+                               HttpServletResponse response) throws IOException {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        List<byte[]> partHeaders = new ArrayList<>();
+        long length = 0;
+        for (Range r : ranges) {
+            byte[] header = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": bytes " + r.start() + "-" + r.end() + "/" + size + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            length += header.length + r.length();
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        length += closing.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(length);
+        if (head) return;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            for (int i = 0; i < ranges.size(); i++) {
+                out.write(partHeaders.get(i));
+                transfer(channel, ranges.get(i), target);
+            }
+            out.write(closing);
+        } catch (IOException e) {
+            log.debug("媒体传输中断: {} ({})", file.getFileName(), e.getMessage());
+        }
+    }
+
+    private void transfer(FileChannel channel, Range r, WritableByteChannel target) throws IOException {
+        long position = r.start();
+        long remaining = r.length();
+        while (remaining > 0) {
+            long n = channel.transferTo(position, remaining, target);
+            if (n <= 0) break;
+            position += n;
+            remaining -= n;
+        }
+    }
+
+    // If-Range 可以是 ETag (强比较) 或 HTTP 日期 (精确到秒)
+    private boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) return true;
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+        return date != -1 && date / 1000 == lastModified / 1000;
+    }
+
+    /**
+     * 解析 "bytes=0-499,1000-,-500"，按起点排序并合并重叠 / 相邻的段 (同一段字节只发一次)
+     * @return null 表示格式不合法 (按规范忽略 Range)；空列表表示所有段都超出文件范围 (416)
+     */
+    static List<Range> parseRanges(String header, long size) {
+        if (!header.startsWith("bytes=")) return null;
+        String[] specs = header.substring(6).split(",");
+        if (specs.length > MAX_RANGES) return null;
+
+        List<Range> ranges = new ArrayList<>();
+        try {
+            for (String raw : specs) {
+                String spec = raw.trim();
+                int dash = spec.indexOf('-');
+                if (dash < 0) return null;
+                String first = spec.substring(0, dash).trim();
+                String last = spec.substring(dash + 1).trim();
+                long start;
+                long end;
+                if (first.isEmpty()) {
+                    // "-500"：最后 500 字节
+                    long suffix = Long.parseLong(last);
+                    if (suffix <= 0 || size == 0) continue; // 空文件没有"最后 N 字节"，不可满足
+                    start = Math.max(0, size - suffix);
+                    end = size - 1;
+                } else {
+                    start = Long.parseLong(first);
+                    end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                    if (end < start) return null;
+                    if (start >= size) continue; // 这一段不可满足，跳过
+                    end = Math.min(end, size - 1);
+                }
+                ranges.add(new Range(start, end));
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return merge(ranges);
+    }
+
+    // 按起点排序后，和上一段重叠或紧挨着的并进上一段
+    private static List<Range> merge(List<Range> ranges) {
+        if (ranges.size() < 2) return ranges;
+        ranges.sort(Comparator.comparingLong(Range::start));
+        List<Range> merged = new ArrayList<>();
+        Range current = ranges.get(0);
+        for (Range next : ranges.subList(1, ranges.size())) {
+            if (next.start() <= current.end() + 1) {
+                current = new Range(current.start(), Math.max(current.end(), next.end()));
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+}
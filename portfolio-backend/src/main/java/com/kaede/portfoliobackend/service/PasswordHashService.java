@@ -0,0 +1,118 @@
+package com.kaede.portfoliobackend.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt 专用线程池
+ * 1. 每次哈希约 100ms 纯 CPU，放在虚拟线程上会占满载体线程，拖慢所有接口；这里固定几个平台线程专门算；
+ * 2. 排队有上限，队列满直接拒绝；等待超过期限也放弃，调用方返回 503，不让登录高峰拖垮文章读取；
+ * 3. 队列长度、活跃线程数、排队时间和哈希耗时都暴露成指标。
+ */
+@Service
+public class PasswordHashService {
+
+    /**
+     * 哈希线程池过载 (队列已满或等待超时)，调用方应返回 503
+     */
+    public static class OverloadedException extends RuntimeException {
+        public OverloadedException(String message) {
+            super(message);
+        }
+    }
+
+    @Autowired
+    private BCryptPasswordEncoder passwordEncoder;
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final MeterRegistry meterRegistry;
+    private final Timer waitTimer;
+
+    public PasswordHashService(@Value("${password-hash.threads:0}") int threads,
+                               @Value("${password-hash.queue-capacity:64}") int queueCapacity,
+                               @Value("${password-hash.timeout-ms:3000}") long timeoutMillis,
+                               MeterRegistry meterRegistry) {
+        // 默认占一半 CPU，给其它请求留出余量
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+        this.meterRegistry = meterRegistry;
+        this.waitTimer = meterRegistry.timer("portfolio.auth.bcrypt.wait");
+        Gauge.builder("portfolio.auth.bcrypt.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("portfolio.auth.bcrypt.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        return submit("encode", () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return submit("verify", () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    private <T> T submit(String op, Callable<T> hash) {
+        long enqueuedAt = System.nanoTime();
+        Timer hashTimer = meterRegistry.timer("portfolio.auth.bcrypt", "op", op);
+
+        // 1. 入队；队列满立刻拒绝
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.recordCallable(hash);
+            });
+        } catch (RejectedExecutionException e) {
+            reject("overload");
+            throw new OverloadedException("密码校验队列已满");
+        }
+
+        // 2. 等结果；超过期限就放弃 (还在排队的任务取消后不会再执行)
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            reject("timeout");
+            throw new OverloadedException("密码校验等待超时");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new OverloadedException("密码校验被中断");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void reject(String reason) {
+        meterRegistry.counter("portfolio.auth.bcrypt.rejected", "reason", reason).increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
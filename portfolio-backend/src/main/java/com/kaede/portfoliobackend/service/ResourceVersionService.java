@@ -0,0 +1,122 @@
+package com.kaede.portfoliobackend.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 公开读接口的版本戳 (条件 GET)
+ * 1. 每个集合 (文章列表、作品列表、履历、某篇文章的评论) 和每条记录各有一个版本号，写操作时 touch 一下；
+ * 2. 读接口先用版本号拼出强 ETag + Last-Modified 和请求头比对，命中直接 304，不查库也不序列化；
+ * 3. 版本号只在内存里，ETag 里带上启动时间，重启后旧 ETag 一律失效，不会误判；
+ * 4. 单条记录只有确认存在过 (新建、写过、或第一次 200) 才有版本戳，没有版本戳的一律不命中，
+ *    不存在的 id 拿不到 304，也不会在这里留下任何东西。
+ */
+@Service
+public class ResourceVersionService {
+
+    public static final String ARTICLES = "articles";
+    public static final String PROJECTS = "projects";
+    public static final String CAREERS = "careers";
+    public static final String COMMENTS = "comments";
+
+    private record Stamp(long version, long lastModified) {
+    }
+
+    // 所有版本号共用一个递增序列，任意两次写拿到的版本都不同
+    private final AtomicLong sequence = new AtomicLong();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    // 从没写过的 key 用启动时间作为最后修改时间 (HTTP 日期只精确到秒)
+    private final Stamp initial = new Stamp(0, System.currentTimeMillis() / 1000 * 1000);
+
+    private final Map<String, Stamp> stamps = new ConcurrentHashMap<>();
+
+    /**
+     * 集合整体变化 (新增、删除、排序字段变化)
+     */
+    public void touch(String collection) {
+        stamps.put(collection, next());
+    }
+
+    /**
+     * 单条记录变化，所在集合一起变
+     */
+    public void touch(String collection, Object id) {
+        Stamp stamp = next();
+        stamps.put(collection + ":" + id, stamp);
+        stamps.put(collection, stamp);
+    }
+
+    /**
+     * 记录已删除：去掉它的版本戳，集合一起变
+     */
+    public void forget(String collection, Object id) {
+        stamps.remove(collection + ":" + id);
+        stamps.put(collection, next());
+    }
+
+    /**
+     * 集合级条件请求：命中时已经写好 304，调用方直接 return null
+     */
+    public boolean checkNotModified(WebRequest request, String collection) {
+        return check(request, collection);
+    }
+
+    /**
+     * 单条记录级条件请求；这条记录还没有版本戳 (没确认存在过) 时一律不命中，也不写 ETag
+     */
+    public boolean checkNotModified(WebRequest request, String collection, Object id) {
+        Stamp stamp = stamps.get(collection + ":" + id);
+        return stamp != null && check(request, stamp);
+    }
+
+    /**
+     * 查库确认记录存在之后调用：还没有版本戳就建一个，并写出 ETag / Last-Modified，下次条件请求才能命中
+     */
+    public void stamp(WebRequest request, String collection, Object id) {
+        check(request, stamps.computeIfAbsent(collection + ":" + id, k -> next()));
+    }
+
+    /**
+     * 几个集合合起来的当前版本 (例如首页聚合)：版本号全局递增，取最大的就能代表整体
+     */
+    public long version(String... collections) {
+        return combined(collections).version();
+    }
+
+    /**
+     * 按调用方手里那份数据自己的版本号 (version 的返回值) 做条件请求，只用 ETag
+     * 用于缓存快照：返回的可能是旧快照，ETag 必须跟着快照走，不能用集合当前的版本
+     */
+    public boolean checkNotModifiedAt(WebRequest request, long version) {
+        return request.checkNotModified(etagOf(version));
+    }
+
+    private Stamp combined(String... collections) {
+        Stamp latest = initial;
+        for (String collection : collections) {
+            Stamp stamp = stamps.getOrDefault(collection, initial);
+            if (stamp.version() > latest.version()) latest = stamp;
+        }
+        return latest;
+    }
+
+    private boolean check(WebRequest request, String key) {
+        return check(request, stamps.getOrDefault(key, initial));
+    }
+
+    private boolean check(WebRequest request, Stamp stamp) {
+        return request.checkNotModified(etagOf(stamp.version()), stamp.lastModified());
+    }
+
+    private String etagOf(long version) {
+        return "\"" + epoch + "-" + Long.toString(version, 36) + "\"";
+    }
+
+    private Stamp next() {
+        return new Stamp(sequence.incrementAndGet(), System.currentTimeMillis());
+    }
+}
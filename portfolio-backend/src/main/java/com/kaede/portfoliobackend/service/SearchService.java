@@ -0,0 +1,357 @@
+package com.kaede.portfoliobackend.service;
+
+import com.kaede.portfoliobackend.entity.Article;
+import com.kaede.portfoliobackend.entity.Project;
+import com.kaede.portfoliobackend.repository.ArticleRepository;
+import com.kaede.portfoliobackend.repository.ProjectRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 站内全文搜索 (内存倒排索引)
+ * 1. 启动时从数据库全量建索引，之后文章/作品的增删改由控制器增量同步；
+ * 2. 英文/数字按单词切分，中日韩文字切成单字 + 二元组 (bigram)，PostgreSQL 自带的分词器处理不了中文；
+ * 3. 查询时所有词都要命中，按 BM25 打分排序，标题权重最高，返回带 &lt;mark&gt; 高亮的摘要片段。
+ */
+@Service
+public class SearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    public static final String TYPE_ARTICLE = "article";
+    public static final String TYPE_PROJECT = "project";
+
+    // 字段权重：标题 > 摘要/简介 > 正文
+    private static final int TITLE_WEIGHT = 3;
+    private static final int SUMMARY_WEIGHT = 2;
+    private static final int CONTENT_WEIGHT = 1;
+
+    // BM25 参数
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int SNIPPET_RADIUS = 40;
+
+    public record Hit(String type, Long id, String title, String snippet, double score) {
+    }
+
+    public record Result(int total, int page, int size, List<Hit> items) {
+    }
+
+    private record DocKey(String type, Long id) {
+    }
+
+    // 索引里每篇文档保留的信息：词频用于删除/更新时撤销倒排，正文用于生成摘要片段
+    private record Doc(String title, String text, Map<String, Integer> termFreqs, int length) {
+    }
+
+    // 词 -> (文档 -> 加权词频)
+    private final Map<String, Map<DocKey, Integer>> postings = new HashMap<>();
+    private final Map<DocKey, Doc> docs = new HashMap<>();
+    private long totalLength = 0;
+
+    // 写入很少 (发布/编辑)，读很多：读写锁让搜索可以并发
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docs.clear();
+            totalLength = 0;
+            articleRepository.findAll().forEach(this::putArticle);
+            projectRepository.findAll().forEach(this::putProject);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("搜索索引已建立：{} 篇文档，{} 个词", docs.size(), postings.size());
+    }
+
+    public void indexArticle(Article article) {
+        lock.writeLock().lock();
+        try {
+            putArticle(article);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void indexProject(Project project) {
+        lock.writeLock().lock();
+        try {
+            putProject(project);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeArticle(Long id) {
+        remove(new DocKey(TYPE_ARTICLE, id));
+    }
+
+    public void removeProject(Long id) {
+        remove(new DocKey(TYPE_PROJECT, id));
+    }
+
+    /**
+     * @param type 只搜某一类 (article / project)，null 表示全部
+     * @param page 从 0 开始的页码
+     */
+    public Result search(String query, String type, int page, int size) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenizeQuery(query)));
+        if (terms.isEmpty()) return new Result(0, page, size, List.of());
+
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            // 1. 从最短的倒排表开始求交集，所有词都要命中
+            List<Map<DocKey, Integer>> lists = new ArrayList<>();
+            for (String term : terms) {
+                Map<DocKey, Integer> list = postings.get(term);
+                if (list == null) return new Result(0, page, size, List.of());
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(Map::size));
+
+            int n = docs.size();
+            double avgLength = n == 0 ? 1 : (double) totalLength / n;
+            for (DocKey key : lists.get(0).keySet()) {
+                if (type != null && !type.equals(key.type())) continue;
+                double score = 0;
+                boolean all = true;
+                for (Map<DocKey, Integer> list : lists) {
+                    Integer tf = list.get(key);
+                    if (tf == null) {
+                        all = false;
+                        break;
+                    }
+                    // 2. BM25：idf × 饱和后的词频，按文档长度归一化
+                    double idf = Math.log(1 + (n - list.size() + 0.5) / (list.size() + 0.5));
+                    double norm = K1 * (1 - B + B * docs.get(key).length() / avgLength);
+                    score += idf * tf * (K1 + 1) / (tf + norm);
+                }
+                if (all) {
+                    Doc doc = docs.get(key);
+                    hits.add(new Hit(key.type(), key.id(), doc.title(), null, score));
+                }
+            }
+
+            // 3. 排序后只给当前页生成高亮片段
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+            // 页码是用户传的，用 long 算偏移免得 page * size 溢出成负数；翻过了头就是空页
+            long offset = (long) page * size;
+            if (offset >= hits.size()) return new Result(hits.size(), page, size, List.of());
+            int from = (int) offset;
+            int to = Math.min(from + size, hits.size());
+            List<String> words = highlightWords(query);
+            List<Hit> items = hits.subList(from, to).stream()
+                    .map(h -> {
+                        Doc doc = docs.get(new DocKey(h.type(), h.id()));
+                        return new Hit(h.type(), h.id(), h.title(), snippet(doc.text(), words), h.score());
+                    })
+                    .toList();
+            return new Result(hits.size(), page, size, items);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- 索引维护 (调用方持有写锁) ----
+
+    private void putArticle(Article a) {
+        Map<String, Integer> tf = new HashMap<>();
+        addTerms(tf, a.getTitle(), TITLE_WEIGHT);
+        addTerms(tf, a.getSummary(), SUMMARY_WEIGHT);
+        addTerms(tf, a.getContent(), CONTENT_WEIGHT);
+        put(new DocKey(TYPE_ARTICLE, a.getId()), a.getTitle(), join(a.getSummary(), plainText(a.getContent())), tf);
+    }
+
+    private void putProject(Project p) {
+        Map<String, Integer> tf = new HashMap<>();
+        addTerms(tf, p.getTitle(), TITLE_WEIGHT);
+        addTerms(tf, p.getDescription(), SUMMARY_WEIGHT);
+        put(new DocKey(TYPE_PROJECT, p.getId()), p.getTitle(), p.getDescription(), tf);
+    }
+
+    private void put(DocKey key, String title, String text, Map<String, Integer> tf) {
+        unindex(key);
+        int length = tf.values().stream().mapToInt(Integer::intValue).sum();
+        docs.put(key, new Doc(title, text == null ? "" : text, tf, length));
+        totalLength += length;
+        tf.forEach((term, freq) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(key, freq));
+    }
+
+    private void remove(DocKey key) {
+        lock.writeLock().lock();
+        try {
+            unindex(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unindex(DocKey key) {
+        Doc old = docs.remove(key);
+        if (old == null) return;
+        totalLength -= old.length();
+        old.termFreqs().keySet().forEach(term -> {
+            Map<DocKey, Integer> list = postings.get(term);
+            if (list != null) {
+                list.remove(key);
+                if (list.isEmpty()) postings.remove(term);
+            }
+        });
+    }
+
+    private void addTerms(Map<String, Integer> tf, String text, int weight) {
+        for (String term : tokenize(text, true)) {
+            tf.merge(term, weight, Integer::sum);
+        }
+    }
+
+    // ---- 分词 ----
+
+    // 查询：中文连续两个字以上只用二元组匹配，单个字才用单字
+    private List<String> tokenizeQuery(String query) {
+        return tokenize(query, false);
+    }
+
+    /**
+     * @param indexing true 时中文额外输出单字，保证单字查询也能命中
+     */
+    static List<String> tokenize(String text, boolean indexing) {
+        List<String> out = new ArrayList<>();
+        if (text == null) return out;
+        String s = text.toLowerCase(Locale.ROOT);
+        int i = 0;
+        int len = s.length();
+        while (i < len) {
+            int cp = s.codePointAt(i);
+            if (isCjk(cp)) {
+                List<String> chars = new ArrayList<>();
+                while (i < len && isCjk(s.codePointAt(i))) {
+                    int c = s.codePointAt(i);
+                    chars.add(new String(Character.toChars(c)));
+                    i += Character.charCount(c);
+                }
+                if (indexing || chars.size() == 1) out.addAll(chars);
+                for (int j = 0; j + 1 < chars.size(); j++) {
+                    out.add(chars.get(j) + chars.get(j + 1));
+                }
+            } else if (Character.isLetterOrDigit(cp)) {
+                int start = i;
+                while (i < len && Character.isLetterOrDigit(s.codePointAt(i)) && !isCjk(s.codePointAt(i))) {
+                    i += Character.charCount(s.codePointAt(i));
+                }
+                out.add(s.substring(start, i));
+            } else {
+                i += Character.charCount(cp);
+            }
+        }
+        return out;
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    // ---- 摘要片段 ----
+
+    // 高亮用用户输入的原词 (按空白切分)，比 bigram 更贴近用户看到的效果
+    private List<String> highlightWords(String query) {
+        List<String> words = new ArrayList<>();
+        for (String w : query.split("\\s+")) {
+            if (!w.isBlank()) words.add(w);
+        }
+        return words;
+    }
+
+    // 在原文上直接忽略大小写匹配：不能先 toLowerCase 再拿下标回原文切，
+    // 有些字符 (如 "İ") 转小写后长度会变，下标就对不上了
+    private String snippet(String text, List<String> words) {
+        int first = Math.max(0, indexOfAny(text, words, 0).start());
+        int start = Math.max(0, first - SNIPPET_RADIUS);
+        int end = Math.min(text.length(), first + SNIPPET_RADIUS * 2);
+        String window = text.substring(start, end);
+
+        // 先转义再包 <mark>，避免正文里的 HTML 被当成标签渲染
+        StringBuilder sb = new StringBuilder();
+        if (start > 0) sb.append("…");
+        int pos = 0;
+        while (pos < window.length()) {
+            Match match = indexOfAny(window, words, pos);
+            if (match.start() < 0) {
+                sb.append(escape(window.substring(pos)));
+                break;
+            }
+            int matchEnd = match.start() + match.length();
+            sb.append(escape(window.substring(pos, match.start())))
+                    .append("<mark>").append(escape(window.substring(match.start(), matchEnd))).append("</mark>");
+            pos = matchEnd;
+        }
+        if (end < text.length()) sb.append("…");
+        return sb.toString();
+    }
+
+    // start 为 -1 表示没找到
+    private record Match(int start, int length) {
+    }
+
+    // 从 from 起最靠前的一处命中 (忽略大小写)；同一位置命中多个词取最长的
+    private static Match indexOfAny(String text, List<String> words, int from) {
+        for (int i = from; i < text.length(); i++) {
+            int length = 0;
+            for (String w : words) {
+                if (w.length() > length && text.regionMatches(true, i, w, 0, w.length())) length = w.length();
+            }
+            if (length > 0) return new Match(i, length);
+        }
+        return new Match(-1, 0);
+    }
+
+    private static String escape(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    // 去掉 HTML 标签和常见的 Markdown 标记符号，摘要里只留文字
+    static String plainText(String markdown) {
+        if (markdown == null) return "";
+        return markdown
+                .replaceAll("<[^>]+>", " ")
+                .replaceAll("!\\[[^]]*]\\([^)]*\\)", " ")
+                .replaceAll("\\[([^]]*)]\\([^)]*\\)", "$1")
+                .replaceAll("[#>*_`~|-]+", " ")
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+
+    private static String join(String a, String b) {
+        if (a == null || a.isBlank()) return b;
+        return a + " " + b;
+    }
+}
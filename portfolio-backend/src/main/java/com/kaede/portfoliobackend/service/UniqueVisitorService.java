@@ -0,0 +1,177 @@
+package com.kaede.portfoliobackend.service;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+import com.kaede.portfoliobackend.config.AuthUser;
+import com.kaede.portfoliobackend.entity.VisitorSketch;
+import com.kaede.portfoliobackend.repository.VisitorSketchRepository;
+import com.kaede.portfoliobackend.utils.HyperLogLog;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 文章 / 作品的去重访客数 (UV)
+ * 1. 每个条目每天一个 HyperLogLog 草图，访客标识 (登录用户 id，或 IP + User-Agent) 只以哈希形式进草图，不存明细；
+ * 2. 请求线程只更新内存里的增量草图，定时合并进数据库里的日草图和"全部时间"草图；
+ * 3. 近 7 天的去重人数 = 7 个日草图取并集；日草图超过保留天数就删掉，累计草图一直保留。
+ */
+@Service
+public class UniqueVisitorService {
+
+    private static final Logger log = LoggerFactory.getLogger(UniqueVisitorService.class);
+
+    private record Key(short type, long id, LocalDate day) {
+    }
+
+    public record Stats(long today, long last7Days, long allTime) {
+    }
+
+    @Autowired
+    private VisitorSketchRepository sketchRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${unique-visitors.retention-days:90}")
+    private int retentionDays;
+
+    // 还没落库的增量草图 (稀疏表示，一个条目一天只有几个访客时只占几十字节)；更新和取走都走 ConcurrentHashMap 的按 key 原子操作
+    private final ConcurrentHashMap<Key, HyperLogLog> pending = new ConcurrentHashMap<>();
+    // 全部时间的去重人数，详情页直接读；落库时刷新
+    private final Map<String, Long> allTimeEstimates = new ConcurrentHashMap<>();
+
+    private volatile LocalDate lastPurge;
+
+    /**
+     * 访客标识：登录用户按用户 id，游客按 IP + User-Agent (IP 经 server.forward-headers-strategy 还原，代理后面也是真实客户端)
+     */
+    public String visitorOf(AuthUser user, HttpServletRequest request) {
+        if (user != null) return "u:" + user.id();
+        return "a:" + request.getRemoteAddr() + "|" + request.getHeader(HttpHeaders.USER_AGENT);
+    }
+
+    /**
+     * 只能在确认条目存在之后调用 (查库拿到了记录，或者命中了只有已存在条目才有的版本戳)，
+     * 否则随便一个 id 都会在内存和 visitor_sketches 里留下草图
+     */
+    public void record(short type, Long id, String visitor) {
+        long hash = MurmurHash.hash64(visitor);
+        pending.compute(new Key(type, id, LocalDate.now()), (key, sketch) -> {
+            HyperLogLog next = sketch == null ? new HyperLogLog() : sketch;
+            next.add(hash);
+            return next;
+        });
+    }
+
+    /**
+     * 详情页用的累计去重人数 (不含最近一个刷盘周期的增量)
+     */
+    public long allTime(short type, Long id) {
+        String key = type + ":" + id;
+        Long cached = allTimeEstimates.get(key);
+        if (cached != null) return cached;
+        // 查库放在 map 外面：computeIfAbsent 里阻塞会一直占着这个桶的锁
+        long estimate = sketchRepository.findById(new VisitorSketch.Key(type, id, VisitorSketch.ALL_TIME))
+                .map(s -> HyperLogLog.fromBytes(s.getSketch()).estimate())
+                .orElse(0L);
+        // 期间 flush 已经写进更新的值就用它的
+        Long raced = allTimeEstimates.putIfAbsent(key, estimate);
+        return raced != null ? raced : estimate;
+    }
+
+    /**
+     * 今天 / 近 7 天 / 全部时间的去重人数，含还没落库的增量
+     */
+    public Stats stats(short type, Long id) {
+        LocalDate today = LocalDate.now();
+        HyperLogLog todaySketch = new HyperLogLog();
+        HyperLogLog week = new HyperLogLog();
+        for (VisitorSketch s : sketchRepository.findDays(type, id, today.minusDays(6), today)) {
+            HyperLogLog day = HyperLogLog.fromBytes(s.getSketch());
+            week.merge(day);
+            if (s.getVisitDate().equals(today)) todaySketch.merge(day);
+        }
+        HyperLogLog allTime = sketchRepository.findById(new VisitorSketch.Key(type, id, VisitorSketch.ALL_TIME))
+                .map(s -> HyperLogLog.fromBytes(s.getSketch()))
+                .orElseGet(HyperLogLog::new);
+
+        // 叠加内存里的增量 (在 compute 里读，避免和并发的 add 交错)
+        pending.computeIfPresent(new Key(type, id, today), (key, delta) -> {
+            todaySketch.merge(delta);
+            week.merge(delta);
+            allTime.merge(delta);
+            return delta;
+        });
+        return new Stats(todaySketch.estimate(), week.estimate(), allTime.estimate());
+    }
+
+    public void deleteTarget(short type, Long id) {
+        pending.keySet().removeIf(key -> key.type() == type && key.id() == id);
+        sketchRepository.deleteByTarget(type, id);
+        allTimeEstimates.remove(type + ":" + id);
+    }
+
+    @Scheduled(fixedDelayString = "${unique-visitors.flush-interval-ms:60000}")
+    public synchronized void flush() {
+        for (Key key : pending.keySet()) {
+            HyperLogLog delta = pending.remove(key);
+            if (delta == null) continue;
+            try {
+                long estimate = transactionTemplate.execute(status -> {
+                    mergeInto(new VisitorSketch.Key(key.type(), key.id(), key.day()), delta);
+                    return mergeInto(new VisitorSketch.Key(key.type(), key.id(), VisitorSketch.ALL_TIME), delta);
+                });
+                allTimeEstimates.put(key.type() + ":" + key.id(), estimate);
+            } catch (RuntimeException e) {
+                // 落库失败：增量并回内存，下一轮重试
+                pending.merge(key, delta, (current, failed) -> {
+                    current.merge(failed);
+                    return current;
+                });
+                log.error("访客草图落库失败，下次重试: {}", e.getMessage());
+            }
+        }
+        purgeExpiredDays();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // 读出库里的草图并上增量再写回，返回合并后的估计值
+    private long mergeInto(VisitorSketch.Key id, HyperLogLog delta) {
+        VisitorSketch row = sketchRepository.findById(id).orElseGet(() -> {
+            VisitorSketch created = new VisitorSketch();
+            created.setTargetType(id.getTargetType());
+            created.setTargetId(id.getTargetId());
+            created.setVisitDate(id.getVisitDate());
+            return created;
+        });
+        HyperLogLog merged = row.getSketch() == null ? new HyperLogLog() : HyperLogLog.fromBytes(row.getSketch());
+        merged.merge(delta);
+        row.setSketch(merged.toBytes());
+        sketchRepository.save(row);
+        return merged.estimate();
+    }
+
+    // 每天清一次超过保留期的日草图
+    private void purgeExpiredDays() {
+        LocalDate today = LocalDate.now();
+        if (today.equals(lastPurge)) return;
+        lastPurge = today;
+        int removed = sketchRepository.deleteDaysBefore(today.minusDays(retentionDays), VisitorSketch.ALL_TIME);
+        if (removed > 0) log.info("已清理 {} 个过期的访客日草图", removed);
+    }
+}
@@ -0,0 +1,82 @@
+package com.kaede.portfoliobackend.service;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.kaede.portfoliobackend.entity.User;
+import com.kaede.portfoliobackend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * 登录用户的身份缓存
+ * 1. Token 里带着签发时的角色，但角色可能被改、用户可能被删；JWT 过滤器按用户 id 查这里拿"当前"的角色；
+ * 2. 旧 Token 没有用户 id，按用户名缓存一份；查不到的 (已删除的用户) 也缓存，旧 Token 不会每次请求都打库；
+ * 3. 经接口的用户变更 (目前只有注册) 调 invalidate；绕过接口直接改库的靠 TTL 兜底，最多延迟 user-cache.ttl-ms 生效。
+ */
+@Service
+public class UserCacheService {
+
+    /**
+     * role 为 null 表示用户已不存在
+     */
+    public record CachedUser(Long id, String username, String role) {
+        public boolean exists() {
+            return role != null;
+        }
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final LRUCache<Long, CachedUser> byId;
+    private final LRUCache<String, CachedUser> byUsername;
+
+    public UserCacheService(@Value("${user-cache.max-entries:10000}") int maxEntries,
+                            @Value("${user-cache.ttl-ms:60000}") long ttlMillis) {
+        this.byId = CacheUtil.newLRUCache(maxEntries, ttlMillis);
+        this.byUsername = CacheUtil.newLRUCache(maxEntries, ttlMillis);
+    }
+
+    /**
+     * @return 当前的用户信息；用户已被删除时返回 empty
+     */
+    public Optional<CachedUser> get(Long id) {
+        // 不刷新访问时间：条目严格在装载 TTL 之后过期
+        CachedUser cached = byId.get(id, false);
+        if (cached == null) {
+            cached = userRepository.findById(id).map(UserCacheService::of)
+                    .orElseGet(() -> new CachedUser(id, null, null));
+            byId.put(id, cached);
+        }
+        return cached.exists() ? Optional.of(cached) : Optional.empty();
+    }
+
+    /**
+     * 旧 Token 里没有用户 id 时按用户名查；查到的同时按 id 缓存
+     */
+    public Optional<CachedUser> getByUsername(String username) {
+        CachedUser cached = byUsername.get(username, false);
+        if (cached == null) {
+            cached = userRepository.findByUsername(username).map(UserCacheService::of)
+                    .orElseGet(() -> new CachedUser(null, username, null));
+            byUsername.put(username, cached);
+            if (cached.exists()) byId.put(cached.id(), cached);
+        }
+        return cached.exists() ? Optional.of(cached) : Optional.empty();
+    }
+
+    /**
+     * 用户新建、改角色或被删除后调用 (按 id 和用户名的条目都清掉)
+     */
+    public void invalidate(User user) {
+        if (user.getId() != null) byId.remove(user.getId());
+        if (user.getUsername() != null) byUsername.remove(user.getUsername());
+    }
+
+    private static CachedUser of(User user) {
+        return new CachedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+}
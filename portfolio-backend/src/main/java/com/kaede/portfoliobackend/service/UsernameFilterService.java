@@ -0,0 +1,66 @@
+package com.kaede.portfoliobackend.service;
+
+import com.kaede.portfoliobackend.repository.UserRepository;
+import com.kaede.portfoliobackend.utils.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 用户名布隆过滤器
+ * 1. 启动时把所有用户名装进内存，注册成功后追加；
+ * 2. 过滤器说"不存在"就一定不存在：不存在的用户名登录、注册查重都不用查库 (撞库时大部分请求都是这种)；
+ * 3. 绕过接口直接改库的用户要等下一次定时重建才能看到；重建完成之前一律当"可能存在"，走数据库。
+ */
+@Service
+public class UsernameFilterService {
+
+    private static final Logger log = LoggerFactory.getLogger(UsernameFilterService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${user-bloom.expected-users:100000}")
+    private long expectedUsers;
+
+    @Value("${user-bloom.fpp:0.01}")
+    private double fpp;
+
+    // 为 null 表示还没加载完
+    private volatile BloomFilter filter;
+    // 正在重建的过滤器：重建期间注册的用户两边都写，切换后不会丢
+    private volatile BloomFilter building;
+
+    public boolean mightExist(String username) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(username);
+    }
+
+    public void add(String username) {
+        BloomFilter current = filter;
+        if (current != null) current.put(username);
+        BloomFilter next = building;
+        if (next != null) next.put(username);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${user-bloom.rebuild-interval-ms:600000}",
+            fixedDelayString = "${user-bloom.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        // 按实际用户数留足余量，用户涨过预期时误判率也不会失控
+        BloomFilter next = new BloomFilter(Math.max(expectedUsers, userRepository.count() * 2), fpp);
+        building = next;
+        List<String> usernames = userRepository.findAllUsernames();
+        usernames.forEach(next::put);
+        filter = next;
+        building = null;
+        log.debug("用户名过滤器已重建: {} 个用户", usernames.size());
+    }
+}
@@ -0,0 +1,115 @@
+package com.kaede.portfoliobackend.service;
+
+import com.kaede.portfoliobackend.repository.ArticleRepository;
+import com.kaede.portfoliobackend.repository.ProjectRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * 浏览量写回缓冲 (write-behind)
+ * 请求线程只在内存里 +1，不碰数据库；定时任务把攒下的增量合并成
+ * 一条 "view_count = view_count + d.delta FROM unnest(...)" 的 UPDATE，关闭时再刷一次。
+ */
+@Service
+public class ViewCounterService {
+
+    private static final Logger log = LoggerFactory.getLogger(ViewCounterService.class);
+
+    // key: 文章/作品 id，value: 尚未落库的增量 (LongAdder 内部分段，高并发下不争抢同一个 CAS)
+    private final ConcurrentHashMap<Long, LongAdder> articleViews = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LongAdder> projectViews = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ResourceVersionService versions;
+
+    @Autowired
+    private HotRankingService hotRankingService;
+
+    public void recordArticleView(Long id) {
+        increment(articleViews, id);
+        hotRankingService.onArticleView(id);
+    }
+
+    public void recordProjectView(Long id) {
+        increment(projectViews, id);
+        hotRankingService.onProjectView(id);
+    }
+
+    // 还没刷到数据库的增量，接口返回时叠加到实体上，前端看到的数字不会"回跳"
+    public long pendingArticleViews(Long id) {
+        LongAdder adder = articleViews.get(id);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public long pendingProjectViews(Long id) {
+        LongAdder adder = projectViews.get(id);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    // 在 compute 里 +1：和刷盘后删除空条目的 computeIfPresent 互斥，不会加到已经移出 map 的 LongAdder 上
+    private void increment(ConcurrentHashMap<Long, LongAdder> views, Long id) {
+        views.compute(id, (k, adder) -> {
+            LongAdder next = adder == null ? new LongAdder() : adder;
+            next.increment();
+            return next;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${view-counter.flush-interval-ms:5000}")
+    public void flush() {
+        flush(articleViews, articleRepository::incrementViewCounts, ResourceVersionService.ARTICLES, "文章");
+        flush(projectViews, projectRepository::incrementViewCounts, ResourceVersionService.PROJECTS, "作品");
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void flush(ConcurrentHashMap<Long, LongAdder> views,
+                       BiFunction<Long[], Integer[], Integer> increment, String collection, String label) {
+        // 1. 把每个 id 的增量取出并清零 (sumThenReset 逐个 cell 原子交换，并发中的 +1 不会丢)
+        Map<Long, Long> dirty = new HashMap<>();
+        views.forEach((id, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta > 0) dirty.put(id, delta);
+        });
+        // 这一轮没有新增量的条目移出 map，map 里只留最近有人访问的 id
+        views.keySet().forEach(id -> views.computeIfPresent(id, (k, adder) -> adder.sum() == 0 ? null : adder));
+        if (dirty.isEmpty()) return;
+
+        // 2. 所有 id 的相对更新打成两个数组，一条语句落库
+        try {
+            Long[] ids = dirty.keySet().toArray(Long[]::new);
+            Integer[] deltas = new Integer[ids.length];
+            for (int i = 0; i < ids.length; i++) deltas[i] = Math.toIntExact(dirty.get(ids[i]));
+            increment.apply(ids, deltas);
+            // 浏览量已经落库，让这些条目和列表的 ETag 失效 (最多每个刷盘周期变一次)
+            dirty.keySet().forEach(id -> versions.touch(collection, id));
+        } catch (RuntimeException e) {
+            // 3. 刷盘失败：把增量还回去，等下一轮重试
+            dirty.forEach((id, delta) -> views.compute(id, (k, adder) -> {
+                LongAdder next = adder == null ? new LongAdder() : adder;
+                next.add(delta);
+                return next;
+            }));
+            log.error("{}浏览量刷盘失败，{} 条增量将在下次重试: {}", label, dirty.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.kaede.portfoliobackend.utils;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的布隆过滤器
+ * 说"不存在"一定不存在，说"存在"有 fpp 的概率误判；位数组用 AtomicLongArray，写入不加锁。
+ * k 个哈希位置由一次 64 位 MurmurHash 拆成两半做双重哈希得到 (Kirsch-Mitzenmacher)。
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long numBits;
+    private final int numHashes;
+
+    /**
+     * @param expectedInsertions 预计元素个数，超出后误判率会升高
+     * @param fpp                期望误判率，例如 0.01
+     */
+    public BloomFilter(long expectedInsertions, double fpp) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.max(64, (m + 63) / 64 * 64);
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray(Math.toIntExact(numBits / 64));
+    }
+
+    public void put(CharSequence value) {
+        long hash = MurmurHash.hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long index = index(h1 + i * h2);
+            long mask = 1L << index;
+            int word = (int) (index >>> 6);
+            // 已经置位就不用 CAS
+            if ((bits.get(word) & mask) == 0) {
+                bits.getAndAccumulate(word, mask, (a, b) -> a | b);
+            }
+        }
+    }
+
+    public boolean mightContain(CharSequence value) {
+        long hash = MurmurHash.hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long index = index(h1 + i * h2);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(int combined) {
+        // 取反保证非负，再映射到位数组范围内
+        return (combined < 0 ? ~combined : combined) % numBits;
+    }
+}
@@ -0,0 +1,58 @@
+package com.kaede.portfoliobackend.utils;
+
+import com.kaede.portfoliobackend.repository.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 键集分页 (keyset pagination) 的游标编解码
+ * 游标 = Base64URL("排序键|id")，服务端据此拼出 "(排序键, id) < (?, ?)" 的条件，
+ * 不管翻到第几页，都只是沿索引往后读 size 条，不会像 OFFSET 那样越翻越慢。
+ */
+public final class CursorUtils {
+
+    public static final int DEFAULT_PAGE_SIZE = 12;
+    public static final int MAX_PAGE_SIZE = 50;
+
+    private CursorUtils() {
+    }
+
+    public record Cursor(String key, long id) {
+    }
+
+    public static String encode(Object key, Long id) {
+        String raw = key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 解析失败时抛 IllegalArgumentException，由调用方转成 400
+    public static Cursor decode(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int sep = raw.lastIndexOf('|');
+        if (sep < 0) throw new IllegalArgumentException("无效的游标: " + cursor);
+        return new Cursor(raw.substring(0, sep), Long.parseLong(raw.substring(sep + 1)));
+    }
+
+    public static int clampSize(Integer size) {
+        if (size == null || size <= 0) return DEFAULT_PAGE_SIZE;
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * 查询时多取一条 (size + 1) 用来判断是否还有下一页
+     * @param rows 按排序取出的最多 size + 1 行
+     * @param key  从最后一行取排序键
+     * @param id   从最后一行取 id
+     */
+    public static <T> CursorPage<T> page(List<T> rows, int size, Function<T, Object> key, Function<T, Long> id) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        T last = items.get(size - 1);
+        return new CursorPage<>(items, encode(key.apply(last), id.apply(last)));
+    }
+}
@@ -0,0 +1,136 @@
+package com.kaede.portfoliobackend.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 按时间衰减的热度排行
+ * 1. 一次事件的分值随时间指数衰减 (半衰期固定)；所有条目按同样的比例衰减，排名只在有新事件时才变；
+ * 2. 所以不必随时间改分数：每次事件按 "权重 x 2^((事件时间 - 基准时间) / 半衰期)" 累加到条目上，
+ *    越新的事件放大得越多，效果等同于把旧分数打折；更新就是跳表里删一个、插一个，O(log n)；
+ * 3. 放大倍数随时间指数增长，定时 rebase：基准时间挪到现在，所有分数整体缩回去，排名不变。
+ */
+public class DecayedRanking {
+
+    private record Entry(double score, long id) {
+    }
+
+    // 分数从高到低，同分按 id 从大到小 (新的在前)
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::id).reversed());
+
+    private final ConcurrentHashMap<Long, Double> scores = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> ordered = new ConcurrentSkipListSet<>(ORDER);
+    // 事件更新、读排行之间可以并发 (同一个 id 由 compute 串行)，rebase 要独占
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final double halfLifeMillis;
+    private volatile long epochMillis;
+
+    public DecayedRanking(long halfLifeMillis, long nowMillis) {
+        this.halfLifeMillis = halfLifeMillis;
+        this.epochMillis = nowMillis;
+    }
+
+    /**
+     * 基准时间 (rebase 之前的分数都是相对它放大的)
+     */
+    public long epochMillis() {
+        return epochMillis;
+    }
+
+    /**
+     * 记一次事件
+     * @param weight   事件发生那一刻的分值，负数表示撤销 (例如取消点赞)
+     * @param atMillis 事件发生时间
+     */
+    public void add(long id, double weight, long atMillis) {
+        lock.readLock().lock();
+        try {
+            double amplified = weight * Math.pow(2, (atMillis - epochMillis) / halfLifeMillis);
+            scores.compute(id, (key, old) -> {
+                double previous = old == null ? 0 : old;
+                double next = Math.max(0, previous + amplified);
+                if (old != null && next == previous) return old;
+                // 先插新位置再删旧位置，并发读最多看到重复，不会漏掉这个条目
+                ordered.add(new Entry(next, id));
+                if (old != null) ordered.remove(new Entry(old, id));
+                return next;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long id) {
+        return scores.containsKey(id);
+    }
+
+    public void remove(long id) {
+        lock.readLock().lock();
+        try {
+            scores.computeIfPresent(id, (key, old) -> {
+                ordered.remove(new Entry(old, id));
+                return null;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 前 n 名的 id，直接从跳表头部读，不排序
+     */
+    public List<Long> top(int n) {
+        // rebase 会清空重建跳表，读的时候要挡住它，否则可能读到空的或只有一半的排行
+        lock.readLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>(n);
+            Set<Long> seen = new HashSet<>();
+            for (Entry entry : ordered) {
+                if (ids.size() >= n) break;
+                if (seen.add(entry.id())) ids.add(entry.id());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 当前基准时间下的分数，不在排行里返回 0
+     */
+    public double score(long id) {
+        return scores.getOrDefault(id, 0.0);
+    }
+
+    public int size() {
+        return scores.size();
+    }
+
+    /**
+     * 把基准时间挪到 nowMillis，所有分数按同一比例缩小；排名不变
+     */
+    public void rebase(long nowMillis) {
+        lock.writeLock().lock();
+        try {
+            double factor = Math.pow(2, -(nowMillis - epochMillis) / halfLifeMillis);
+            ordered.clear();
+            for (Map.Entry<Long, Double> e : scores.entrySet()) {
+                double scaled = e.getValue() * factor;
+                e.setValue(scaled);
+                ordered.add(new Entry(scaled, e.getKey()));
+            }
+            epochMillis = nowMillis;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.kaede.portfoliobackend.utils;
 
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import cn.hutool.crypto.digest.DigestUtil;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
@@ -11,6 +19,8 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 public class JwtUtils {
@@ -21,9 +31,36 @@ public class JwtUtils {
     // 过期时间：24小时
     private final long EXPIRATION_TIME = 86400000;
 
-    // 1. 生成 Token (把用户名和角色塞进去)
-    public String generateToken(String username, String role) {
+    // 解析器是不可变、线程安全的，构建一次反复使用
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+
+    // 已验签的 Token 缓存：key 是 Token 的 SHA-256 摘要，条目在 Token 过期时一并失效
+    private final LRUCache<String, Claims> verifiedCache;
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    // 解析耗时：命中缓存 / 完整验签 分开统计
+    private final Timer parseHitTimer;
+    private final Timer parseMissTimer;
+
+    public record CacheStats(long hits, long misses, int size) {
+    }
+
+    public JwtUtils(@Value("${jwt.cache.max-entries:10000}") int maxEntries, MeterRegistry meterRegistry) {
+        this.verifiedCache = CacheUtil.newLRUCache(maxEntries);
+        this.parseHitTimer = meterRegistry.timer("portfolio.jwt.parse", "cache", "hit");
+        this.parseMissTimer = meterRegistry.timer("portfolio.jwt.parse", "cache", "miss");
+        FunctionCounter.builder("portfolio.jwt.cache.requests", cacheHits, LongAdder::sum)
+                .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("portfolio.jwt.cache.requests", cacheMisses, LongAdder::sum)
+                .tag("result", "miss").register(meterRegistry);
+        Gauge.builder("portfolio.jwt.cache.size", verifiedCache, LRUCache::size).register(meterRegistry);
+    }
+
+    // 1. 生成 Token (把用户 id、用户名和角色塞进去)
+    public String generateToken(Long userId, String username, String role) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put("uid", userId); // 带上用户 id，后续写评论等操作不用再按用户名查库
         claims.put("role", role); // 关键：把角色信息存入载荷
 
         return Jwts.builder()
@@ -37,19 +74,49 @@ public class JwtUtils {
 
     // 2. 从 Token 中解析出用户名
     public String extractUsername(String token) {
-        return extractAllClaims(token).getSubject();
+        return parseClaims(token).getSubject();
     }
 
     // 3. 从 Token 中解析出角色
     public String extractRole(String token) {
-        return (String) extractAllClaims(token).get("role");
+        return (String) parseClaims(token).get("role");
+    }
+
+    // 从载荷里取用户 id；升级前签发的 Token 没有这个字段，返回 null
+    public Long extractUserId(Claims claims) {
+        Object uid = claims.get("uid");
+        return uid instanceof Number n ? n.longValue() : null;
+    }
+
+    /**
+     * 4. 验签并返回全部载荷 (一次解析拿到用户名、角色等所有字段)
+     * 同一个会话反复请求时直接命中缓存，跳过 HMAC 验签；Token 无效或过期时抛出 JwtException
+     */
+    public Claims parseClaims(String token) {
+        long start = System.nanoTime();
+        String digest = DigestUtil.sha256Hex(token);
+        // 第二个参数 false：不刷新访问时间，条目严格在 Token 过期时刻失效，而不是"闲置多久"后失效
+        Claims cached = verifiedCache.get(digest, false);
+        if (cached != null) {
+            cacheHits.increment();
+            parseHitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached;
+        }
+        cacheMisses.increment();
+
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            long ttl = claims.getExpiration().getTime() - System.currentTimeMillis();
+            if (ttl > 0) {
+                verifiedCache.put(digest, claims, ttl);
+            }
+            return claims;
+        } finally {
+            parseMissTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public CacheStats cacheStats() {
+        return new CacheStats(cacheHits.sum(), cacheMisses.sum(), verifiedCache.size());
     }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.kaede.portfoliobackend.utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 带容量上限、按时间轮过期的缓存
+ * 1. 时间被切成固定长度的刻度，每个条目按到期刻度挂到轮上对应的槽里；
+ * 2. advance 每走一格只处理这一格里到期的 key，清理成本和到期数量成正比，与缓存总量无关；
+ * 3. 满了就从最早到期的槽开始淘汰，刷接口只会挤掉最老的条目，内存不会无限涨。
+ * 所有条目共用同一个存活时间，所以新条目总是挂在最远的槽上。
+ */
+public class TimingWheelCache<K, V> {
+
+    private record Entry<V>(V value, long expireTick) {
+    }
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Queue<K>[] wheel;
+    private final long tickMillis;
+    private final long ttlTicks;
+    private final int capacity;
+
+    // 已经处理到的刻度，只由 advance 推进
+    private volatile long currentTick;
+
+    /**
+     * @param ttlMillis  条目存活时间
+     * @param tickMillis 时间轮一格的长度，也是过期时间的精度
+     * @param capacity   最多保留的条目数
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheelCache(long ttlMillis, long tickMillis, int capacity) {
+        this.tickMillis = tickMillis;
+        this.ttlTicks = Math.max(1, (ttlMillis + tickMillis - 1) / tickMillis);
+        this.capacity = capacity;
+        // 多留两格，保证新条目的槽不会和正在清理的槽重叠
+        this.wheel = new Queue[(int) ttlTicks + 2];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.currentTick = tickOf(System.currentTimeMillis());
+    }
+
+    public void put(K key, V value) {
+        if (entries.size() >= capacity) {
+            evictOldest();
+        }
+        long expireTick = currentTick + ttlTicks;
+        entries.put(key, new Entry<>(value, expireTick));
+        wheel[slot(expireTick)].add(key);
+    }
+
+    /**
+     * @return 不存在或已过期时返回 null
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        // 时间轮还没转到这一格时也按过期处理
+        if (entry == null || entry.expireTick() <= tickOf(System.currentTimeMillis())) return null;
+        return entry.value();
+    }
+
+    public V remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        return entry == null ? null : entry.value();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 把时间轮推进到当前时刻，清理沿途各格里到期的条目；由定时任务周期调用
+     */
+    public synchronized void advance() {
+        long target = tickOf(System.currentTimeMillis());
+        // 停顿超过一整圈时，每一格都只需要清一次
+        long from = Math.max(currentTick + 1, target - wheel.length + 1);
+        for (long tick = from; tick <= target; tick++) {
+            Queue<K> bucket = wheel[slot(tick)];
+            // 只处理这一格里已有的 key；重复 put 留下的旧 key 直接丢掉，由新位置上的 key 负责
+            for (int n = bucket.size(); n > 0; n--) {
+                K key = bucket.poll();
+                if (key == null) break;
+                Entry<V> entry = entries.get(key);
+                if (entry == null) continue;
+                if (entry.expireTick() <= tick) {
+                    entries.remove(key, entry);
+                } else if (slot(entry.expireTick()) == slot(tick)) {
+                    // 停顿太久跳格时，下一圈才到期的条目放回原槽
+                    bucket.add(key);
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, target);
+    }
+
+    // 从最早到期的槽开始淘汰，直到腾出空间
+    private synchronized void evictOldest() {
+        for (long tick = currentTick + 1; tick <= currentTick + wheel.length && entries.size() >= capacity; tick++) {
+            Queue<K> bucket = wheel[slot(tick)];
+            K key;
+            while (entries.size() >= capacity && (key = bucket.poll()) != null) {
+                Entry<V> entry = entries.get(key);
+                if (entry != null && entry.expireTick() == tick) {
+                    entries.remove(key, entry);
+                }
+            }
+        }
+    }
+
+    private long tickOf(long millis) {
+        return millis / tickMillis;
+    }
+
+    private int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) wheel.length);
+    }
+}
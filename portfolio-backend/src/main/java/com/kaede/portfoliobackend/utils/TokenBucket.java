@@ -0,0 +1,42 @@
+package com.kaede.portfoliobackend.utils;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 无锁令牌桶
+ * 令牌数和上次回填时间放在一个不可变快照里，取令牌时按流逝时间回填再扣减，CAS 失败就重试，不加锁。
+ */
+public class TokenBucket {
+
+    private record State(double tokens, long refilledAt) {
+    }
+
+    private final int capacity;
+    // 每纳秒回填多少令牌
+    private final double refillPerNano;
+    private final AtomicReference<State> state;
+
+    public TokenBucket(int capacity, int perMinute) {
+        this.capacity = capacity;
+        this.refillPerNano = perMinute / 60_000_000_000.0;
+        this.state = new AtomicReference<>(new State(capacity, System.nanoTime()));
+    }
+
+    /**
+     * 尝试取一个令牌
+     * @return 0 表示放行；否则是还要等多少纳秒才有下一个令牌
+     */
+    public long tryConsume() {
+        while (true) {
+            State current = state.get();
+            long now = System.nanoTime();
+            double tokens = Math.min(capacity, current.tokens() + (now - current.refilledAt()) * refillPerNano);
+            if (tokens < 1) {
+                return refillPerNano > 0 ? (long) Math.ceil((1 - tokens) / refillPerNano) : Long.MAX_VALUE;
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, now))) {
+                return 0;
+            }
+        }
+    }
+}
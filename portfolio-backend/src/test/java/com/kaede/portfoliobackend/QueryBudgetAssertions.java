@@ -0,0 +1,40 @@
+package com.kaede.portfoliobackend;
+
+import com.kaede.portfoliobackend.config.QueryBudgetFilter;
+import com.kaede.portfoliobackend.config.QueryBudgetProperties;
+import com.kaede.portfoliobackend.config.QueryCountInspector;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 测试用：断言一次 MockMvc 请求的 SQL 条数不超过 application.yml 里给该接口配的预算，并且没有疑似 N+1
+ */
+public final class QueryBudgetAssertions {
+
+    private QueryBudgetAssertions() {
+    }
+
+    public static QueryCountInspector.Recording recordingOf(MvcResult result) {
+        Object recording = result.getRequest().getAttribute(QueryBudgetFilter.RECORDING_ATTRIBUTE);
+        assertNotNull(recording, "请求没有经过 QueryBudgetFilter (query-budget.enabled 关了?)");
+        return (QueryCountInspector.Recording) recording;
+    }
+
+    public static void assertWithinBudget(MvcResult result, QueryBudgetProperties budgets) {
+        String endpoint = QueryBudgetFilter.endpointOf(result.getRequest());
+        QueryCountInspector.Recording recording = recordingOf(result);
+
+        int budget = budgets.budgetFor(endpoint);
+        assertTrue(recording.count() <= budget, () -> endpoint + " 执行了 " + recording.count()
+                + " 条 SQL，超出预算 " + budget + ": " + recording.statements());
+
+        for (Map.Entry<String, Integer> e : recording.statements().entrySet()) {
+            assertTrue(e.getValue() < budgets.getRepeatThreshold(),
+                    () -> endpoint + " 疑似 N+1：同一条 SQL 执行了 " + e.getValue() + " 次: " + e.getKey());
+        }
+    }
+}
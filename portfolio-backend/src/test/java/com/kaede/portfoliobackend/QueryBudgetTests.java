@@ -0,0 +1,176 @@
+package com.kaede.portfoliobackend;
+
+import com.kaede.portfoliobackend.config.AuthUser;
+import com.kaede.portfoliobackend.config.QueryBudgetProperties;
+import com.kaede.portfoliobackend.entity.Article;
+import com.kaede.portfoliobackend.entity.Comment;
+import com.kaede.portfoliobackend.entity.User;
+import com.kaede.portfoliobackend.entity.VisitorSketch;
+import com.kaede.portfoliobackend.repository.ArticleRepository;
+import com.kaede.portfoliobackend.repository.CommentRepository;
+import com.kaede.portfoliobackend.repository.UserRepository;
+import com.kaede.portfoliobackend.service.MarkdownService;
+import com.kaede.portfoliobackend.service.ResourceVersionService;
+import com.kaede.portfoliobackend.service.UniqueVisitorService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 接口的 SQL 条数预算 (预算配在 application.yml 的 query-budget.endpoints)
+ * 有人加了懒加载关联或者循环查库，这里会直接失败。
+ * 测试数据在测试事务里现插，MockMvc 和测试同一个线程、同一个事务，测完整体回滚，不依赖库里原有的数据。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class QueryBudgetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private QueryBudgetProperties budgets;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MarkdownService markdownService;
+
+    @Autowired
+    private UniqueVisitorService uniqueVisitorService;
+
+    @Autowired
+    private ResourceVersionService versions;
+
+    private User user;
+    private Article article;
+
+    @BeforeEach
+    void seed() {
+        user = new User();
+        user.setUsername("budget-" + System.nanoTime());
+        user.setPassword("-");
+        user.setRole("ROLE_USER");
+        userRepository.save(user);
+
+        article = new Article();
+        article.setTitle("查询预算");
+        article.setSummary("fixture");
+        article.setCategory("test");
+        article.setContent("## 一\n\n正文\n\n## 二\n\n更多正文");
+        markdownService.renderInto(article);
+        articleRepository.save(article);
+
+        // 两条顶层评论，第一条下面挂两层回复
+        Comment first = comment(null);
+        Comment reply = comment(first.getId());
+        comment(reply.getId());
+        comment(null);
+        // 写进库再清掉一级缓存，否则接口里的 findById 直接命中缓存，少算查询
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        // 访客草图在内存里攒着等定时落库，id 对应的文章会随事务回滚，这里先丢掉
+        uniqueVisitorService.deleteTarget(VisitorSketch.ARTICLE, article.getId());
+    }
+
+    @Test
+    void listEndpointsStayWithinBudget() throws Exception {
+        for (String url : new String[]{"/api/articles", "/api/articles?sort=hot", "/api/projects",
+                "/api/career/list", "/api/home"}) {
+            assertWithinBudget(get(url));
+        }
+    }
+
+    @Test
+    void homeRebuildCountsQueriesFromWorkerThreads() throws Exception {
+        // 让快照过期，这次请求一定会重建；三条查询跑在别的虚拟线程上，也要算进这个请求
+        versions.touch(ResourceVersionService.ARTICLES);
+        MvcResult result = mockMvc.perform(get("/api/home")).andExpect(status().isOk()).andReturn();
+        assertTrue(QueryBudgetAssertions.recordingOf(result).count() > 0, "首页重建的 SQL 没有记到请求上");
+        QueryBudgetAssertions.assertWithinBudget(result, budgets);
+    }
+
+    @Test
+    void requestsRejectedBySecurityAreStillRecorded() throws Exception {
+        // 计数过滤器排在 Spring Security 前面，被拦下的请求也有记录
+        MvcResult result = mockMvc.perform(get("/api/admin/export")).andReturn();
+        QueryBudgetAssertions.recordingOf(result);
+    }
+
+    @Test
+    void articleReadEndpointsStayWithinBudget() throws Exception {
+        Long id = article.getId();
+        assertWithinBudget(get("/api/articles/" + id));
+        assertWithinBudget(get("/api/articles/" + id + "/visitors"));
+        assertWithinBudget(get("/api/comments/article/" + id + "/thread"));
+    }
+
+    @Test
+    void likeEndpointsStayWithinBudget() throws Exception {
+        String base = "/api/articles/" + article.getId();
+        assertWithinBudget(get(base + "/like-status").with(asUser()));
+        mockMvc.perform(post(base + "/like").with(asUser()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isLiked").value(true))
+                .andDo(result -> QueryBudgetAssertions.assertWithinBudget(result, budgets));
+        // 取消点赞走同一条语句
+        assertWithinBudget(post(base + "/like").with(asUser()));
+    }
+
+    private Comment comment(Long parentId) {
+        Comment comment = new Comment();
+        comment.setArticleId(article.getId());
+        comment.setUserId(user.getId());
+        comment.setParentId(parentId);
+        comment.setContent("fixture");
+        return commentRepository.save(comment);
+    }
+
+    // 跳过 JWT，直接把登录用户放进安全上下文
+    private RequestPostProcessor asUser() {
+        AuthUser principal = new AuthUser(user.getId(), user.getUsername(), user.getRole());
+        return authentication(new UsernamePasswordAuthenticationToken(principal, null,
+                List.of(new SimpleGrantedAuthority(user.getRole()))));
+    }
+
+    private void assertWithinBudget(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+        QueryBudgetAssertions.assertWithinBudget(result, budgets);
+    }
+}
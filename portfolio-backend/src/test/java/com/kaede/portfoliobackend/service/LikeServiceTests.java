@@ -0,0 +1,107 @@
+package com.kaede.portfoliobackend.service;
+
+import com.kaede.portfoliobackend.entity.Article;
+import com.kaede.portfoliobackend.entity.ContentLike;
+import com.kaede.portfoliobackend.repository.ArticleRepository;
+import com.kaede.portfoliobackend.repository.ContentLikeRepository;
+import com.kaede.portfoliobackend.repository.LikeToggleResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 点赞切换的并发语义，要真的提交事务，测试数据自己建自己删
+ */
+@SpringBootTest
+class LikeServiceTests {
+
+    // 不会和真实用户撞上的 id
+    private static final long USER_ID = -1L;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ContentLikeRepository contentLikeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long articleId;
+
+    @BeforeEach
+    void seed() {
+        Article article = new Article();
+        article.setTitle("点赞并发");
+        article.setContent("fixture");
+        articleId = articleRepository.save(article).getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        contentLikeRepository.deleteByTarget(ContentLike.ARTICLE, articleId);
+        articleRepository.deleteById(articleId);
+    }
+
+    @Test
+    void concurrentFirstClicksBothReportLiked() throws Exception {
+        // 先把这个用户的点赞集合装进缓存，验证缓存跟着结果走
+        assertFalse(likeService.hasLikedArticle(USER_ID, articleId));
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        CompletableFuture<LikeToggleResult> second = tx.execute(status -> {
+            // 1. 第一次点击插入了点赞但还没提交
+            LikeToggleResult first = likeService.toggleArticleLike(articleId, USER_ID).orElseThrow();
+            assertTrue(first.getLiked());
+
+            // 2. 第二次点击在另一个事务里：删不到 (看不见未提交的行)，插入卡在主键上
+            CompletableFuture<LikeToggleResult> pending = CompletableFuture.supplyAsync(
+                    () -> likeService.toggleArticleLike(articleId, USER_ID).orElseThrow());
+            awaitBlockedOnLock();
+            return pending;
+        });
+
+        // 3. 第一次提交后，第二次的插入撞上 ON CONFLICT：行存在，应该也返回已点赞
+        LikeToggleResult result = second.get(10, TimeUnit.SECONDS);
+        assertTrue(result.getLiked());
+        assertEquals(1, result.getLikeCount());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM content_likes WHERE target_type = 1 AND target_id = ? AND user_id = ?",
+                Integer.class, articleId, USER_ID));
+        assertTrue(likeService.hasLikedArticle(USER_ID, articleId));
+
+        // 之后再点一次才是真正的取消
+        assertFalse(likeService.toggleArticleLike(articleId, USER_ID).orElseThrow().getLiked());
+        assertFalse(likeService.hasLikedArticle(USER_ID, articleId));
+    }
+
+    private void awaitBlockedOnLock() {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            Integer waiting = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock' AND datname = current_database()",
+                    Integer.class);
+            if (waiting != null && waiting > 0) return;
+            Thread.onSpinWait();
+        }
+        throw new AssertionError("第二次点击没有在锁上等待");
+    }
+}
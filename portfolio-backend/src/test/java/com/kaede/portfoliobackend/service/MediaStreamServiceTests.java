@@ -0,0 +1,54 @@
+package com.kaede.portfoliobackend.service;
+
+import com.kaede.portfoliobackend.service.MediaStreamService.Range;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.kaede.portfoliobackend.service.MediaStreamService.parseRanges;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MediaStreamServiceTests {
+
+    @Test
+    void parsesFirstLastAndSuffixRanges() {
+        assertEquals(List.of(new Range(0, 499)), parseRanges("bytes=0-499", 1000));
+        assertEquals(List.of(new Range(900, 999)), parseRanges("bytes=900-", 1000));
+        assertEquals(List.of(new Range(500, 999)), parseRanges("bytes=-500", 1000));
+        // 超出文件的部分截到文件末尾
+        assertEquals(List.of(new Range(0, 999)), parseRanges("bytes=-5000", 1000));
+        assertEquals(List.of(new Range(500, 999)), parseRanges("bytes=500-5000", 1000));
+    }
+
+    @Test
+    void malformedHeadersAreIgnored() {
+        assertNull(parseRanges("items=0-1", 1000));
+        assertNull(parseRanges("bytes=abc", 1000));
+        assertNull(parseRanges("bytes=5-1", 1000));
+        assertNull(parseRanges("bytes=x-1", 1000));
+        assertNull(parseRanges("bytes=" + "0-1,".repeat(17), 1000));
+    }
+
+    @Test
+    void unsatisfiableRangesYieldEmptyList() {
+        assertEquals(List.of(), parseRanges("bytes=1000-", 1000));
+        assertEquals(List.of(), parseRanges("bytes=-0", 1000));
+        // 空文件：后缀段和任何起点都不可满足，应答 416 而不是 "bytes 0--1/0"
+        assertEquals(List.of(), parseRanges("bytes=-500", 0));
+        assertEquals(List.of(), parseRanges("bytes=0-", 0));
+        // 不可满足的段跳过，其余照常
+        assertEquals(List.of(new Range(0, 9)), parseRanges("bytes=2000-,0-9", 1000));
+    }
+
+    @Test
+    void overlappingAndAdjacentRangesAreMerged() {
+        // 同一段重复请求只发一次
+        assertEquals(List.of(new Range(0, 999)), parseRanges("bytes=0-,0-,0-,0-", 1000));
+        assertEquals(List.of(new Range(0, 199)), parseRanges("bytes=100-199,0-99", 1000));
+        assertEquals(List.of(new Range(0, 150)), parseRanges("bytes=0-100,50-150", 1000));
+        assertEquals(List.of(new Range(0, 9), new Range(20, 29), new Range(900, 999)),
+                parseRanges("bytes=-100,20-29,0-9", 1000));
+        assertEquals(List.of(new Range(0, 999)), parseRanges("bytes=0-10,-990", 1000));
+    }
+}
@@ -0,0 +1,60 @@
+package com.kaede.portfoliobackend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTests {
+
+    private static final int N = 10_000;
+    private static final double FPP = 0.01;
+
+    @Test
+    void insertedValuesAreNeverReportedMissing() {
+        BloomFilter filter = new BloomFilter(N, FPP);
+        for (int i = 0; i < N; i++) filter.put("user-" + i);
+        for (int i = 0; i < N; i++) {
+            assertTrue(filter.mightContain("user-" + i), "user-" + i);
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTarget() {
+        BloomFilter filter = new BloomFilter(N, FPP);
+        for (int i = 0; i < N; i++) filter.put("user-" + i);
+
+        long falsePositives = IntStream.range(0, N).filter(i -> filter.mightContain("guest-" + i)).count();
+        // 随机性留出余量：不超过目标的三倍
+        assertTrue(falsePositives < N * FPP * 3, "误判 " + falsePositives + " 次");
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(N, FPP);
+        assertFalse(filter.mightContain("user-0"));
+        assertFalse(filter.mightContain(""));
+    }
+
+    @Test
+    void concurrentPutsLoseNoBits() throws InterruptedException {
+        BloomFilter filter = new BloomFilter(N, FPP);
+        // 多个线程同时置位同一批字，CAS 合并后不能丢
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            threads.add(Thread.ofVirtual().start(() -> {
+                for (int i = offset; i < N; i += 4) filter.put("user-" + i);
+            }));
+        }
+        for (Thread thread : threads) thread.join();
+
+        for (int i = 0; i < N; i++) {
+            assertTrue(filter.mightContain("user-" + i), "user-" + i);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.kaede.portfoliobackend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class DecayedRankingTests {
+
+    private static final long HOUR = 3600_000L;
+    private static final long HALF_LIFE = 48 * HOUR;
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Test
+    void newerEventsOutweighOlderOnesByHalfLife() {
+        DecayedRanking ranking = new DecayedRanking(HALF_LIFE, T0);
+        ranking.add(1, 10, T0);
+        ranking.add(2, 10, T0 + HALF_LIFE);
+
+        // 晚一个半衰期的同等事件分值是两倍
+        assertEquals(10, ranking.score(1), 1e-9);
+        assertEquals(20, ranking.score(2), 1e-9);
+        assertEquals(List.of(2L, 1L), ranking.top(10));
+
+        // 旧条目多攒几次事件可以反超
+        ranking.add(1, 15, T0);
+        assertEquals(List.of(1L, 2L), ranking.top(10));
+        assertEquals(List.of(1L), ranking.top(1));
+    }
+
+    @Test
+    void unlikeRemovesOnlyTheOriginalLikesContribution() {
+        DecayedRanking ranking = new DecayedRanking(HALF_LIFE, T0);
+        ranking.add(1, 10, T0);              // 发布
+        ranking.add(1, 5, T0 + HOUR);        // 点赞
+        ranking.add(1, 1, T0 + 2 * HOUR);    // 浏览
+        double withoutLike = 10 + Math.pow(2, 2.0 / 48);
+
+        // 两个半衰期之后取消：按点赞当时的时间撤掉，发布和浏览的分值原样保留
+        ranking.add(1, -5, T0 + HOUR);
+        assertEquals(withoutLike, ranking.score(1), 1e-9);
+    }
+
+    @Test
+    void scoresNeverGoNegative() {
+        DecayedRanking ranking = new DecayedRanking(HALF_LIFE, T0);
+        ranking.add(1, 5, T0);
+        ranking.add(1, -50, T0);
+        assertEquals(0, ranking.score(1), 1e-9);
+    }
+
+    @Test
+    void rebaseScalesScoresAndKeepsOrder() {
+        DecayedRanking ranking = new DecayedRanking(HALF_LIFE, T0);
+        ranking.add(1, 10, T0);
+        ranking.add(2, 30, T0 + HOUR);
+        ranking.add(3, 20, T0 + 2 * HOUR);
+        List<Long> before = ranking.top(10);
+
+        ranking.rebase(T0 + 2 * HALF_LIFE);
+
+        assertEquals(T0 + 2 * HALF_LIFE, ranking.epochMillis());
+        assertEquals(before, ranking.top(10));
+        assertEquals(2.5, ranking.score(1), 1e-9);
+
+        // rebase 之后同一时刻的事件和之前的分数可比：和 rebase 前直接加的效果一样
+        ranking.add(1, 10, T0);
+        assertEquals(5, ranking.score(1), 1e-9);
+    }
+
+    @Test
+    void removeDropsEntryFromTop() {
+        DecayedRanking ranking = new DecayedRanking(HALF_LIFE, T0);
+        ranking.add(1, 10, T0);
+        ranking.add(2, 5, T0);
+        ranking.remove(1);
+        assertFalse(ranking.contains(1));
+        assertEquals(List.of(2L), ranking.top(10));
+    }
+}
@@ -0,0 +1,93 @@
+package com.kaede.portfoliobackend.utils;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTests {
+
+    // p=12 的标准误差约 1.6%，按三倍留余量
+    private static final double TOLERANCE = 0.05;
+
+    @Test
+    void estimatesStayWithinTheStandardError() {
+        for (int n : new int[]{10, 100, 1_000, 10_000, 100_000}) {
+            HyperLogLog hll = sketch(0, n);
+            assertClose(n, hll.estimate());
+        }
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void repeatedVisitorsAreCountedOnce() {
+        HyperLogLog hll = sketch(0, 1_000);
+        long once = hll.estimate();
+        for (int i = 0; i < 1_000; i++) hll.add(hash(i));
+        assertEquals(once, hll.estimate());
+    }
+
+    @Test
+    void mergeEstimatesTheUnion() {
+        // 两个重叠的区间，并集是 0..100000
+        HyperLogLog a = sketch(0, 60_000);
+        HyperLogLog b = sketch(40_000, 100_000);
+        a.merge(b);
+        assertClose(100_000, a.estimate());
+
+        // 稀疏并进稀疏、稀疏并进整块、整块并进稀疏
+        HyperLogLog small = sketch(0, 50);
+        small.merge(sketch(25, 100));
+        assertClose(100, small.estimate());
+
+        HyperLogLog dense = sketch(0, 10_000);
+        dense.merge(sketch(10_000, 10_050));
+        assertClose(10_050, dense.estimate());
+
+        HyperLogLog sparse = sketch(0, 50);
+        sparse.merge(sketch(0, 10_000));
+        assertClose(10_000, sparse.estimate());
+    }
+
+    @Test
+    void bytesRoundTripKeepsTheSketch() {
+        for (int n : new int[]{0, 30, 100_000}) {
+            HyperLogLog hll = sketch(0, n);
+            byte[] bytes = hll.toBytes();
+            HyperLogLog copy = HyperLogLog.fromBytes(bytes);
+            assertEquals(hll.estimate(), copy.estimate());
+            assertArrayEquals(bytes, copy.toBytes());
+        }
+    }
+
+    @Test
+    void sparseSketchesSerializeSmall() {
+        // 格式 1 字节 + 个数 2 字节 + 每个寄存器 3 字节
+        assertEquals(3 + 30 * 3, sketch(0, 30).toBytes().length, 3 * 3);
+        // 整块：格式 1 字节 + 4096 个寄存器
+        assertEquals(1 + 4096, sketch(0, 100_000).toBytes().length);
+    }
+
+    @Test
+    void unknownFormatIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{7}));
+    }
+
+    private static HyperLogLog sketch(int from, int to) {
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = from; i < to; i++) hll.add(hash(i));
+        return hll;
+    }
+
+    private static long hash(int i) {
+        return MurmurHash.hash64("u:" + i);
+    }
+
+    private static void assertClose(long expected, long actual) {
+        double error = Math.abs(actual - expected) / (double) expected;
+        assertTrue(error <= TOLERANCE, "期望约 " + expected + "，估计 " + actual);
+    }
+}
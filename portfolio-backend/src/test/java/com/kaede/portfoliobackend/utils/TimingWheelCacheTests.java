@@ -0,0 +1,60 @@
+package com.kaede.portfoliobackend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TimingWheelCacheTests {
+
+    private static final long HOUR = 3600_000L;
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    void entriesExpireWhenTheWheelPassesTheirTick() throws InterruptedException {
+        TimingWheelCache<String, Integer> cache = new TimingWheelCache<>(200, 20, 100);
+        cache.put("a", 1);
+        cache.advance();
+        // 还没到期，推进时间轮也不会被清掉
+        assertEquals(1, cache.get("a"));
+        assertEquals(1, cache.size());
+
+        Thread.sleep(400);
+        // 时间轮还没转过去时 get 也按过期处理
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.size());
+
+        cache.advance();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void fullCacheEvictsTheEarliestEntries() {
+        TimingWheelCache<String, Integer> cache = new TimingWheelCache<>(HOUR, MINUTE, 3);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.put("d", 4);
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get("a"));
+        assertEquals(2, cache.get("b"));
+        assertEquals(4, cache.get("d"));
+    }
+
+    @Test
+    void overwritingAKeyKeepsOneEntry() {
+        TimingWheelCache<String, Integer> cache = new TimingWheelCache<>(HOUR, MINUTE, 2);
+        cache.put("a", 1);
+        cache.put("a", 2);
+        cache.put("b", 3);
+
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.get("a"));
+        assertEquals(3, cache.get("b"));
+
+        assertEquals(2, cache.remove("a"));
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.size());
+    }
+}
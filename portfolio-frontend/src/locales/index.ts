@@ -75,6 +75,7 @@ const messages = {
     },
     article: {
       loading: "正在加载文章...",
+      toc: "目录",
       views: "阅读",
       likes: "喜欢",
       liked: "已赞",
@@ -99,6 +100,7 @@ const messages = {
       replyBtn: "回复",
       repliedTo: "回复了",
       noComments: "还没有评论哦",
+      loadMoreComments: "加载更多评论",
       delConfirmTitle: "确定要删除吗？",
       delConfirmDesc1: "如果是父评论，下面的所有回复也会一起消失，且",
       delConfirmDesc2: "无法恢复",
@@ -208,6 +210,7 @@ const messages = {
     },
     article: {
       loading: "Loading article...",
+      toc: "Contents",
       views: "Views",
       likes: "Likes",
       liked: "Liked",
@@ -232,6 +235,7 @@ const messages = {
       replyBtn: "Reply",
       repliedTo: "replied to",
       noComments: "No comments yet",
+      loadMoreComments: "Load more comments",
       delConfirmTitle: "Are you sure?",
       delConfirmDesc1: "Deleting a parent comment removes all replies, and this operation",
       delConfirmDesc2: "cannot be undone",
@@ -342,6 +346,7 @@ const messages = {
     },
     article: {
       loading: "記事を読み込んでいます...",
+      toc: "目次",
       views: "閲覧",
       likes: "いいね",
       liked: "いいね済み",
@@ -366,6 +371,7 @@ const messages = {
       replyBtn: "返信",
       repliedTo: "が返信しました",
       noComments: "まだコメントがありません",
+      loadMoreComments: "さらにコメントを読み込む",
       delConfirmTitle: "本当に削除しますか？",
       delConfirmDesc1: "親コメントを削除するとすべての返信も消去され、",
       delConfirmDesc2: "復元できません",
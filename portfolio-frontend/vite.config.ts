@@ -13,7 +13,9 @@ export default defineConfig({
       // 只要是以 /api 开头的请求，统统拦截并转发给本地后端的 8080 端口
       '/api': {
         target: 'http://localhost:8080', 
-        changeOrigin: true
+        changeOrigin: true,
+        // 带上 X-Forwarded-For，后端才能区分不同的客户端 (限流、访客统计)
+        xfwd: true
       }
     }
   },